@@ -0,0 +1,119 @@
+package com.github.enerccio.gson.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.enerccio.gson.builders.JsonBuilder;
+import com.github.enerccio.gson.builders.StreamingJsonBuilder;
+import com.github.enerccio.gson.builders.ValueBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Building documents of records with {@link JsonBuilder}. {@link #direct()}
+ * builds the same tree without a builder, difference to the builder
+ * benchmarks is the builder's own cost.
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuilderBenchmark {
+
+	@Param({ "1000" })
+	public int records;
+
+	/**
+	 * Own state, so other benchmarks can run against library versions without
+	 * reusable builder
+	 */
+	@State(Scope.Benchmark)
+	public static class Reusable {
+		private final JsonBuilder builder = new JsonBuilder().setReusable(true);
+	}
+
+	private ValueBuilder build(ValueBuilder b) {
+		b = b.object().property("data").array();
+		for (int i = 0; i < records; i++) {
+			b = b.object()
+					.property("id").number(i)
+					.property("name").string("record")
+					.property("active").bool(i % 2 == 0)
+					.property("score").number(i / 10.0)
+					.property("tags").array().string("a").string("b").end()
+				.end();
+		}
+		return b.end().end();
+	}
+
+	@Benchmark
+	public String toJson() {
+		JsonBuilder b = new JsonBuilder();
+		build(b);
+		return b.toJson();
+	}
+
+	@Benchmark
+	public JsonElement toJsonTree() {
+		JsonBuilder b = new JsonBuilder();
+		build(b);
+		return b.toJsonTree();
+	}
+
+	@Benchmark
+	public JsonElement reusableTree(Reusable reusable) {
+		build(reusable.builder.reset());
+		return reusable.builder.toJsonTree();
+	}
+
+	@Benchmark
+	public String reusableJson(Reusable reusable) {
+		build(reusable.builder.reset());
+		return reusable.builder.toJson();
+	}
+
+	@Benchmark
+	public JsonElement direct() {
+		JsonArray data = new JsonArray();
+		for (int i = 0; i < records; i++) {
+			JsonObject record = new JsonObject();
+			record.addProperty("id", i);
+			record.addProperty("name", "record");
+			record.addProperty("active", i % 2 == 0);
+			record.addProperty("score", i / 10.0);
+			JsonArray tags = new JsonArray();
+			tags.add(new JsonPrimitive("a"));
+			tags.add(new JsonPrimitive("b"));
+			record.add("tags", tags);
+			data.add(record);
+		}
+		JsonObject root = new JsonObject();
+		root.add("data", data);
+		return root;
+	}
+
+	@Benchmark
+	public String streaming() {
+		StreamingJsonBuilder b = new StreamingJsonBuilder();
+		build(b);
+		return b.toJson();
+	}
+
+}
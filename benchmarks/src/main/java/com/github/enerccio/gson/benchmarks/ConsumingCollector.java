@@ -0,0 +1,37 @@
+package com.github.enerccio.gson.benchmarks;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.enerccio.gson.visitors.IJsonVisitorCollector;
+
+/**
+ * Collector variant of {@link ConsumingListener} counting visited elements
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+public class ConsumingCollector extends ConsumingListener implements IJsonVisitorCollector<Object> {
+
+	private final Blackhole bh;
+
+	public ConsumingCollector(Blackhole bh) {
+		super(bh, false);
+		this.bh = bh;
+	}
+
+	@Override
+	public IJsonVisitorCollector<Object> fork() {
+		return new ConsumingCollector(bh);
+	}
+
+	@Override
+	public void join(IJsonVisitorCollector<Object> other) {
+
+	}
+
+	@Override
+	public Object getResult() {
+		return this;
+	}
+
+}
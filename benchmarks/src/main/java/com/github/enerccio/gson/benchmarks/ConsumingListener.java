@@ -0,0 +1,38 @@
+package com.github.enerccio.gson.benchmarks;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.enerccio.gson.visitors.IJsonElementEntry;
+import com.github.enerccio.gson.visitors.IJsonElementExit;
+import com.github.enerccio.gson.visitors.IJsonVisitorListener;
+
+/**
+ * Listener passing visited elements into blackhole, optionally with their
+ * rendered paths
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+public class ConsumingListener implements IJsonVisitorListener {
+
+	private final Blackhole bh;
+	private final boolean paths;
+
+	public ConsumingListener(Blackhole bh, boolean paths) {
+		this.bh = bh;
+		this.paths = paths;
+	}
+
+	@Override
+	public void onElementStart(IJsonElementEntry entry) {
+		bh.consume(entry.getType());
+	}
+
+	@Override
+	public void onElementEnd(IJsonElementExit exit) {
+		bh.consume(exit.getLastTreeInfo());
+		if (paths)
+			bh.consume(exit.getPath());
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.github.enerccio.gson.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.enerccio.gson.visitors.JsonStreamVisitor;
+import com.github.enerccio.gson.visitors.JsonTreeVisitor;
+import com.google.gson.JsonElement;
+
+/**
+ * Visits of a single chain of nested objects and arrays. Run with -prof gc to
+ * see allocation per visited level.
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeepNestingBenchmark {
+
+	@Param({ "10", "1000", "100000" })
+	public int depth;
+
+	private String json;
+	private JsonElement tree;
+
+	private final JsonTreeVisitor treeVisitor = new JsonTreeVisitor();
+
+	@Setup
+	public void setup() {
+		json = Payloads.nested(depth, 1);
+		tree = Payloads.nestedTree(depth, 1);
+	}
+
+	@Benchmark
+	public void tree(Blackhole bh) {
+		treeVisitor.visit(tree, new ConsumingListener(bh, false));
+	}
+
+	@Benchmark
+	public JsonElement streamLightweight(Blackhole bh) throws IOException {
+		return new JsonStreamVisitor().setLightweight(true).visit(new StringReader(json),
+				new ConsumingListener(bh, false));
+	}
+
+}
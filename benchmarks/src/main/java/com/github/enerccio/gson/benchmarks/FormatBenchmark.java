@@ -0,0 +1,89 @@
+package com.github.enerccio.gson.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.enerccio.gson.GsonProvider;
+import com.github.enerccio.gson.JsonFormat;
+import com.github.enerccio.gson.benchmarks.Payloads.Shape;
+import com.github.enerccio.gson.builders.JsonBuilder;
+import com.github.enerccio.gson.builders.StreamingJsonBuilder;
+import com.google.gson.JsonElement;
+
+/**
+ * Serialization of documents in each {@link JsonFormat}. Size of the output
+ * is reported as outputChars counter.
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatBenchmark {
+
+	/**
+	 * Size of the last written document
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Output {
+
+		public long outputChars;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			outputChars = 0;
+		}
+	}
+
+	@Param({ "PRETTY", "COMPACT", "COMPACT_UNESCAPED" })
+	public JsonFormat format;
+
+	@Param({ "ARRAY", "STRINGS" })
+	public Shape shape;
+
+	@Param({ "1000" })
+	public int size;
+
+	private JsonBuilder builder;
+	private JsonElement tree;
+
+	@Setup
+	public void setup() {
+		tree = GsonProvider.sharedGson.fromJson(Payloads.generate(shape, size), JsonElement.class);
+		builder = new JsonBuilder();
+		builder.element(tree);
+	}
+
+	@Benchmark
+	public String toJson(Output output) {
+		String json = builder.toJson(format);
+		output.outputChars = json.length();
+		return json;
+	}
+
+	@Benchmark
+	public String streaming(Output output) {
+		String json = new StreamingJsonBuilder(format).element(tree).toJson();
+		output.outputChars = json.length();
+		return json;
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.github.enerccio.gson.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.enerccio.gson.GsonProvider;
+import com.github.enerccio.gson.JsonHelper;
+import com.github.enerccio.gson.JsonHelper.IJsonPredicate;
+import com.github.enerccio.gson.tree.JsonPatternMatcher;
+import com.github.enerccio.gson.visitors.IJsonElementEntry;
+import com.github.enerccio.gson.visitors.IJsonElementExit;
+import com.github.enerccio.gson.visitors.IJsonVisitorListener;
+import com.github.enerccio.gson.visitors.JsonTreeVisitor;
+import com.google.gson.JsonElement;
+
+/**
+ * {@link JsonHelper} lookups over array of records.
+ * <p>
+ * fullVisit is the lookup without subtree pruning, matching every visited
+ * element on exit.
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HelperBenchmark {
+
+	private static final IJsonPredicate ALL = new IJsonPredicate() {
+
+		@Override
+		public boolean test(JsonElement e) {
+			return true;
+		}
+	};
+
+	@Param({ "10000" })
+	public int records;
+
+	@Param({ "data.@0.items.*.id", "data.*.items.*.id" })
+	public String pattern;
+
+	private String json;
+	private JsonElement tree;
+	private JsonPatternMatcher matcher;
+	private ForkJoinPool pool;
+
+	@Setup
+	public void setup() throws ParseException {
+		json = Payloads.records(records);
+		tree = GsonProvider.sharedGson.fromJson(json, JsonElement.class);
+		matcher = new JsonPatternMatcher(pattern);
+		pool = new ForkJoinPool();
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public List<JsonElement> getAll() {
+		return JsonHelper.getAll(tree, matcher);
+	}
+
+	@Benchmark
+	public List<JsonElement> getAllPattern() throws ParseException {
+		return JsonHelper.getAll(tree, pattern);
+	}
+
+	@Benchmark
+	public List<JsonElement> getAllParallel() {
+		return JsonHelper.getAll(tree, matcher, ALL, pool);
+	}
+
+	@Benchmark
+	public List<JsonElement> getAllReader() throws IOException {
+		return JsonHelper.getAll(new StringReader(json), matcher);
+	}
+
+	@Benchmark
+	public List<JsonElement> getAllString() {
+		return JsonHelper.getAll(json, matcher);
+	}
+
+	@Benchmark
+	public List<JsonElement> getN() {
+		return JsonHelper.getN(tree, matcher, 10);
+	}
+
+	@Benchmark
+	public List<JsonElement> fullVisit() {
+		final List<JsonElement> targets = new ArrayList<JsonElement>();
+		new JsonTreeVisitor().visit(tree, new IJsonVisitorListener() {
+
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+
+			}
+
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				if (matcher.matches(exit.getTree()))
+					targets.add(exit.getValue());
+			}
+		});
+		return targets;
+	}
+
+}
@@ -0,0 +1,120 @@
+package com.github.enerccio.gson.benchmarks;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.enerccio.gson.tree.JsonPatternMatcher;
+import com.github.enerccio.gson.tree.JsonPatternMatcher.MatchState;
+import com.github.enerccio.gson.tree.JsonPatternSet;
+import com.github.enerccio.gson.tree.TreeInfo;
+
+/**
+ * Matching of paths by {@link JsonPatternMatcher} and {@link JsonPatternSet}
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatcherBenchmark {
+
+	private static final int PATTERNS = 32;
+
+	private JsonPatternMatcher simple;
+	private JsonPatternMatcher backtracking;
+	private List<TreeInfo> recordPath;
+	private List<TreeInfo> deepPath;
+
+	private String[] keys;
+	private JsonPatternMatcher[] keyMatchers;
+	private JsonPatternSet keySet;
+	private List<List<TreeInfo>> keyPaths;
+
+	@Setup
+	public void setup() throws ParseException {
+		simple = new JsonPatternMatcher("data.@5.items.*.id");
+		recordPath = Arrays.asList(TreeInfo.of("data"), TreeInfo.of(5), TreeInfo.of("items"), TreeInfo.of(2),
+				TreeInfo.of("id"));
+
+		// many ** force the matcher to try every split of the path
+		backtracking = new JsonPatternMatcher("**.a.**.a.**.b");
+		deepPath = new ArrayList<TreeInfo>();
+		for (int i = 0; i < 64; i++) {
+			deepPath.add(TreeInfo.of("a"));
+		}
+
+		// keys are copied so they are not shared with the pattern strings
+		keys = Payloads.sharedPrefixKeys(PATTERNS);
+		keyMatchers = new JsonPatternMatcher[PATTERNS];
+		keyPaths = new ArrayList<List<TreeInfo>>();
+		for (int i = 0; i < PATTERNS; i++) {
+			keyMatchers[i] = new JsonPatternMatcher("root." + keys[i] + ".value");
+			keyPaths.add(Arrays.asList(new TreeInfo(new String("root")), new TreeInfo(new String(keys[i])),
+					new TreeInfo(new String("value"))));
+		}
+		String[] patterns = new String[PATTERNS];
+		for (int i = 0; i < PATTERNS; i++) {
+			patterns[i] = "root." + keys[i] + ".value";
+		}
+		keySet = new JsonPatternSet(patterns);
+	}
+
+	@Benchmark
+	public boolean simpleMatches() {
+		return simple.matches(recordPath);
+	}
+
+	@Benchmark
+	public boolean simpleMatchState() {
+		MatchState state = simple.newMatchState();
+		for (TreeInfo nfo : recordPath) {
+			state.push(nfo);
+		}
+		return state.matches();
+	}
+
+	@Benchmark
+	public boolean backtrackingMatches() {
+		return backtracking.matches(deepPath);
+	}
+
+	@Benchmark
+	public int sharedPrefixKeys() {
+		int matches = 0;
+		for (List<TreeInfo> path : keyPaths) {
+			for (JsonPatternMatcher matcher : keyMatchers) {
+				if (matcher.matches(path))
+					++matches;
+			}
+		}
+		return matches;
+	}
+
+	@Benchmark
+	public int sharedPrefixKeysPatternSet() {
+		int matches = 0;
+		for (List<TreeInfo> path : keyPaths) {
+			matches += keySet.matches(path).length;
+		}
+		return matches;
+	}
+
+}
@@ -0,0 +1,215 @@
+package com.github.enerccio.gson.benchmarks;
+
+import java.util.Random;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Generators of representative benchmark documents.
+ * <p>
+ * All generators are deterministic, so results of different runs are
+ * comparable.
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+public final class Payloads {
+
+	/**
+	 * Shape of generated document
+	 */
+	public enum Shape {
+		/**
+		 * single object with many properties
+		 */
+		WIDE,
+		/**
+		 * nested objects and arrays, 64 levels deep
+		 */
+		DEEP,
+		/**
+		 * array of records sharing the same keys
+		 */
+		ARRAY,
+		/**
+		 * arrays of integers and decimals
+		 */
+		NUMBERS,
+		/**
+		 * records of long strings with escapes
+		 */
+		STRINGS
+	}
+
+	private Payloads() {
+
+	}
+
+	/**
+	 * Generates document of this shape with roughly given number of values
+	 *
+	 * @param shape
+	 * @param size
+	 *            number of values
+	 * @return json string
+	 */
+	public static String generate(Shape shape, int size) {
+		switch (shape) {
+		case WIDE:
+			return wide(size);
+		case DEEP:
+			return deep(64, size / 64);
+		case ARRAY:
+			return records(size / 8);
+		case NUMBERS:
+			return numbers(size);
+		case STRINGS:
+			return strings(size / 4);
+		}
+		throw new IllegalArgumentException("unknown shape " + shape);
+	}
+
+	/**
+	 * Object with given number of properties
+	 */
+	public static String wide(int properties) {
+		StringBuilder b = new StringBuilder("{");
+		for (int i = 0; i < properties; i++) {
+			if (i > 0)
+				b.append(',');
+			b.append("\"property").append(i).append("\":").append(i);
+		}
+		return b.append('}').toString();
+	}
+
+	/**
+	 * Array of nested chains of objects and arrays
+	 *
+	 * @param depth
+	 *            depth of each chain
+	 * @param chains
+	 *            number of chains
+	 */
+	public static String deep(int depth, int chains) {
+		StringBuilder b = new StringBuilder("[");
+		for (int c = 0; c < Math.max(chains, 1); c++) {
+			if (c > 0)
+				b.append(',');
+			b.append(nested(depth, c));
+		}
+		return b.append(']').toString();
+	}
+
+	/**
+	 * Single chain of nested objects and arrays, ie {"a":[{"a":[...]}]}
+	 */
+	public static String nested(int depth, int value) {
+		StringBuilder b = new StringBuilder(depth * 4);
+		for (int d = 0; d < depth; d++) {
+			b.append(d % 2 == 0 ? "{\"a\":" : "[");
+		}
+		b.append(value);
+		for (int d = depth - 1; d >= 0; d--) {
+			b.append(d % 2 == 0 ? '}' : ']');
+		}
+		return b.toString();
+	}
+
+	/**
+	 * Same chain as {@link #nested(int, int)} built directly as a tree, json
+	 * parsing itself is recursive and can't build very deep trees.
+	 */
+	public static JsonElement nestedTree(int depth, int value) {
+		JsonElement e = new JsonPrimitive(value);
+		for (int d = depth - 1; d >= 0; d--) {
+			if (d % 2 == 0) {
+				JsonObject o = new JsonObject();
+				o.add("a", e);
+				e = o;
+			} else {
+				JsonArray a = new JsonArray();
+				a.add(e);
+				e = a;
+			}
+		}
+		return e;
+	}
+
+	/**
+	 * Document {"data":[{"id":..,"items":[{"id":..,"name":..},..]},..]} with
+	 * records sharing same keys
+	 */
+	public static String records(int count) {
+		Random r = new Random(count);
+		StringBuilder b = new StringBuilder("{\"data\":[");
+		for (int i = 0; i < count; i++) {
+			if (i > 0)
+				b.append(',');
+			b.append("{\"id\":").append(i).append(",\"name\":\"record").append(i).append("\",\"active\":")
+					.append(r.nextBoolean()).append(",\"score\":").append(r.nextInt(1000) / 10.0)
+					.append(",\"tags\":[\"a\",\"b\"],\"items\":[");
+			for (int j = 0; j < 3; j++) {
+				if (j > 0)
+					b.append(',');
+				b.append("{\"id\":").append(i * 10 + j).append(",\"name\":\"item").append(j).append("\"}");
+			}
+			b.append("]}");
+		}
+		return b.append("]}").toString();
+	}
+
+	/**
+	 * Array of integer and decimal numbers
+	 */
+	public static String numbers(int count) {
+		Random r = new Random(count);
+		StringBuilder b = new StringBuilder("[");
+		for (int i = 0; i < count; i++) {
+			if (i > 0)
+				b.append(',');
+			if (i % 2 == 0)
+				b.append(r.nextLong());
+			else
+				b.append(r.nextDouble() * 1e6);
+		}
+		return b.append(']').toString();
+	}
+
+	/**
+	 * Array of records with long string values, some of them escaped
+	 */
+	public static String strings(int count) {
+		Random r = new Random(count);
+		StringBuilder b = new StringBuilder("[");
+		for (int i = 0; i < count; i++) {
+			if (i > 0)
+				b.append(',');
+			b.append("{\"title\":\"");
+			text(b, r, 40);
+			b.append("\",\"body\":\"");
+			text(b, r, 200);
+			b.append("\",\"escaped\":\"line\\nquote\\\" tab\\t unicode \\u010d\"}");
+		}
+		return b.append(']').toString();
+	}
+
+	private static void text(StringBuilder b, Random r, int length) {
+		for (int i = 0; i < length; i++) {
+			b.append(i % 7 == 6 ? ' ' : (char) ('a' + r.nextInt(26)));
+		}
+	}
+
+	/**
+	 * Object keys sharing long prefix, ie com_example_service_field0
+	 */
+	public static String[] sharedPrefixKeys(int count) {
+		String[] keys = new String[count];
+		for (int i = 0; i < count; i++) {
+			keys[i] = "com_example_service_configuration_field" + i;
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,102 @@
+package com.github.enerccio.gson.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.enerccio.gson.JsonFormat;
+import com.github.enerccio.gson.builders.JsonBuilder;
+import com.github.enerccio.gson.builders.JsonTemplate;
+import com.github.enerccio.gson.builders.StreamingJsonBuilder;
+import com.github.enerccio.gson.builders.TemplateBuilder;
+import com.github.enerccio.gson.builders.ValueBuilder;
+
+/**
+ * Rendering response of fixed shape via {@link JsonTemplate} compared to
+ * building it with builders
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateBenchmark {
+
+	private JsonTemplate template;
+	private Map<String, Object> values;
+
+	@Setup
+	public void setup() {
+		template = new TemplateBuilder()
+				.object()
+					.property("status").string("ok")
+					.property("version").number(3)
+					.property("user").object()
+						.slot("id", "id")
+						.slot("name", "name")
+						.slot("email", "email")
+						.slot("active", "active")
+					.end()
+					.property("meta").object()
+						.slot("requestId", "requestId")
+						.slot("elapsed", "elapsed")
+					.end()
+				.end()
+				.compile();
+		values = new HashMap<String, Object>();
+		values.put("id", 123456);
+		values.put("name", "John Wick");
+		values.put("email", "john.wick@example.com");
+		values.put("active", true);
+		values.put("requestId", "5f1c2a7e-request");
+		values.put("elapsed", 1.25);
+	}
+
+	private ValueBuilder build(ValueBuilder b) {
+		return b.object()
+					.property("status").string("ok")
+					.property("version").number(3)
+					.property("user").object()
+						.number("id", (Number) values.get("id"))
+						.string("name", (String) values.get("name"))
+						.string("email", (String) values.get("email"))
+						.bool("active", (Boolean) values.get("active"))
+					.end()
+					.property("meta").object()
+						.string("requestId", (String) values.get("requestId"))
+						.number("elapsed", (Number) values.get("elapsed"))
+					.end()
+				.end();
+	}
+
+	@Benchmark
+	public String builder() {
+		return build(new JsonBuilder()).toJson(JsonFormat.COMPACT);
+	}
+
+	@Benchmark
+	public String streaming() {
+		return build(new StreamingJsonBuilder()).toJson();
+	}
+
+	@Benchmark
+	public String template() {
+		return template.render(values);
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.github.enerccio.gson.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.enerccio.gson.GsonProvider;
+import com.github.enerccio.gson.JsonFormat;
+import com.github.enerccio.gson.benchmarks.Payloads.Shape;
+import com.github.enerccio.gson.builders.JsonBuilder;
+import com.github.enerccio.gson.visitors.JsonStreamVisitor;
+import com.google.gson.JsonElement;
+
+/**
+ * Writing json as UTF-8 bytes into a byte buffer and visiting json from UTF-8
+ * bytes, compared to going through String and JDK charset coders
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Utf8Benchmark {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	@Param({ "ARRAY", "STRINGS" })
+	public Shape shape;
+
+	@Param({ "1000" })
+	public int size;
+
+	private JsonBuilder builder;
+	private byte[] bytes;
+	private ByteBuffer buffer;
+	private JsonStreamVisitor visitor;
+
+	@Setup
+	public void setup() {
+		String json = Payloads.generate(shape, size);
+		builder = new JsonBuilder();
+		builder.element(GsonProvider.sharedGson.fromJson(json, JsonElement.class));
+		bytes = json.getBytes(UTF_8);
+		buffer = ByteBuffer.allocate(bytes.length * 2);
+		visitor = new JsonStreamVisitor().setLightweight(true);
+	}
+
+	@Benchmark
+	public ByteBuffer writeViaString() {
+		buffer.clear();
+		buffer.put(builder.toJson(JsonFormat.COMPACT).getBytes(UTF_8));
+		return buffer;
+	}
+
+	@Benchmark
+	public ByteBuffer writeViaEncoder() throws IOException {
+		buffer.clear();
+		Writer w = new OutputStreamWriter(new ByteBufferOutputStream(buffer), UTF_8);
+		JsonFormat.COMPACT.getGson().toJson(builder.toJsonTree(), w);
+		w.flush();
+		return buffer;
+	}
+
+	@Benchmark
+	public ByteBuffer write() {
+		buffer.clear();
+		builder.toJson(buffer, JsonFormat.COMPACT);
+		return buffer;
+	}
+
+	@Benchmark
+	public void visitViaDecoder(Blackhole bh) throws IOException {
+		visitor.visit(new InputStreamReader(new ByteArrayInputStream(bytes), UTF_8), new ConsumingListener(bh, false));
+	}
+
+	@Benchmark
+	public void visit(Blackhole bh) {
+		visitor.visit(ByteBuffer.wrap(bytes), new ConsumingListener(bh, false));
+	}
+
+	private static class ByteBufferOutputStream extends java.io.OutputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferOutputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public void write(int b) {
+			buffer.put((byte) b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			buffer.put(b, off, len);
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.github.enerccio.gson.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.enerccio.gson.GsonProvider;
+import com.github.enerccio.gson.benchmarks.Payloads.Shape;
+import com.github.enerccio.gson.visitors.JsonStreamVisitor;
+import com.github.enerccio.gson.visitors.JsonTreeVisitor;
+import com.github.enerccio.gson.visitors.ParallelJsonTreeVisitor;
+import com.google.gson.JsonElement;
+
+/**
+ * Visits of whole documents of different shapes by all visitors
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VisitorBenchmark {
+
+	@Param({ "WIDE", "DEEP", "ARRAY", "NUMBERS", "STRINGS" })
+	public Shape shape;
+
+	@Param({ "10000" })
+	public int size;
+
+	private String json;
+	private JsonElement tree;
+
+	private final JsonTreeVisitor treeVisitor = new JsonTreeVisitor();
+
+	/**
+	 * Own state, so other benchmarks can run against library versions without
+	 * parallel visitor
+	 */
+	@State(Scope.Benchmark)
+	public static class Parallel {
+		private final ParallelJsonTreeVisitor visitor = new ParallelJsonTreeVisitor();
+	}
+
+	@Setup
+	public void setup() {
+		json = Payloads.generate(shape, size);
+		tree = GsonProvider.sharedGson.fromJson(json, JsonElement.class);
+	}
+
+	@Benchmark
+	public JsonElement stream(Blackhole bh) {
+		return new JsonStreamVisitor().visit(json, new ConsumingListener(bh, false));
+	}
+
+	@Benchmark
+	public JsonElement streamLightweight(Blackhole bh) throws IOException {
+		return new JsonStreamVisitor().setLightweight(true).visit(new StringReader(json),
+				new ConsumingListener(bh, false));
+	}
+
+	@Benchmark
+	public JsonElement streamWithPaths(Blackhole bh) {
+		return new JsonStreamVisitor().visit(json, new ConsumingListener(bh, true));
+	}
+
+	@Benchmark
+	public void tree(Blackhole bh) {
+		treeVisitor.visit(tree, new ConsumingListener(bh, false));
+	}
+
+	@Benchmark
+	public void treeWithPaths(Blackhole bh) {
+		treeVisitor.visit(tree, new ConsumingListener(bh, true));
+	}
+
+	@Benchmark
+	public Object parallelTree(Parallel parallel, Blackhole bh) {
+		return parallel.visitor.visit(tree, new ConsumingCollector(bh));
+	}
+
+}
@@ -1,7 +1,6 @@
 package com.github.enerccio.gson;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 
 /**
  * Shared gson for all utilities.
@@ -18,7 +17,54 @@ public class GsonProvider {
 	 * Shared Gson instance
 	 * 
 	 * @since 1.1.0
+	 * @see JsonFormat#PRETTY
 	 */
-	public static final Gson sharedGson = new GsonBuilder().setPrettyPrinting().create();
+	public static final Gson sharedGson = JsonFormat.PRETTY.getGson();
+
+	/**
+	 * Shared Gson instance without pretty printing
+	 * 
+	 * @since 1.2.0
+	 * @see JsonFormat#COMPACT
+	 */
+	public static final Gson compactGson = JsonFormat.COMPACT.getGson();
+
+	private static volatile JsonFormat defaultFormat = JsonFormat.PRETTY;
+
+	/**
+	 * Sets process wide default format. Builders and visitors without their
+	 * own gson use gson of this format, default is {@link JsonFormat#PRETTY}.
+	 * <p>
+	 * Visitors pick the default gson when they are created.
+	 * 
+	 * @param format
+	 *            new default format
+	 * @since 1.2.0
+	 */
+	public static void setDefaultFormat(JsonFormat format) {
+		if (format == null)
+			throw new NullPointerException("format can't be null");
+		defaultFormat = format;
+	}
+
+	/**
+	 * Returns process wide default format
+	 * 
+	 * @return default format
+	 * @since 1.2.0
+	 */
+	public static JsonFormat getDefaultFormat() {
+		return defaultFormat;
+	}
+
+	/**
+	 * Returns gson of the default format
+	 * 
+	 * @return default gson
+	 * @since 1.2.0
+	 */
+	public static Gson getDefaultGson() {
+		return defaultFormat.getGson();
+	}
 
 }
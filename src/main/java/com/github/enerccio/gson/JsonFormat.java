@@ -0,0 +1,93 @@
+package com.github.enerccio.gson;
+
+import java.io.Writer;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Output format of generated JSON.
+ * <p>
+ * All formats omit properties with null value and each format has its own
+ * shared {@link Gson} instance.
+ * 
+ * @author pvan
+ * @since 1.2.0
+ * @see GsonProvider#setDefaultFormat(JsonFormat)
+ */
+public enum JsonFormat {
+
+	/**
+	 * Indented with two spaces, html characters are escaped
+	 * 
+	 * @since 1.2.0
+	 */
+	PRETTY("  ", true),
+	/**
+	 * Without any whitespace, html characters are escaped
+	 * 
+	 * @since 1.2.0
+	 */
+	COMPACT("", true),
+	/**
+	 * Without any whitespace, html characters are written as they are
+	 * 
+	 * @since 1.2.0
+	 */
+	COMPACT_UNESCAPED("", false);
+
+	private final String indent;
+	private final boolean htmlSafe;
+	private final Gson gson;
+
+	private JsonFormat(String indent, boolean htmlSafe) {
+		this.indent = indent;
+		this.htmlSafe = htmlSafe;
+
+		GsonBuilder builder = new GsonBuilder();
+		if (indent.length() > 0)
+			builder.setPrettyPrinting();
+		if (!htmlSafe)
+			builder.disableHtmlEscaping();
+		this.gson = builder.create();
+	}
+
+	/**
+	 * Returns shared gson writing in this format
+	 * 
+	 * @return gson
+	 * @since 1.2.0
+	 */
+	public Gson getGson() {
+		return gson;
+	}
+
+	/**
+	 * Whether html characters are escaped in this format
+	 * 
+	 * @return true if html characters are escaped
+	 * @since 1.2.0
+	 */
+	public boolean isHtmlSafe() {
+		return htmlSafe;
+	}
+
+	/**
+	 * Creates json writer writing in this format. Writer is lenient, so it
+	 * accepts primitive root values, same as gson.
+	 * 
+	 * @param out
+	 *            writer to write to
+	 * @return json writer
+	 * @since 1.2.0
+	 */
+	public JsonWriter newJsonWriter(Writer out) {
+		JsonWriter writer = new JsonWriter(out);
+		writer.setIndent(indent);
+		writer.setHtmlSafe(htmlSafe);
+		writer.setSerializeNulls(false);
+		writer.setLenient(true);
+		return writer;
+	}
+}
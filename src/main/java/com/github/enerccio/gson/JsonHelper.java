@@ -1,17 +1,27 @@
 package com.github.enerccio.gson;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Field;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.github.enerccio.gson.tree.IJsonPatternCache;
 import com.github.enerccio.gson.tree.JsonPatternMatcher;
+import com.github.enerccio.gson.tree.JsonPatternMatcher.MatchState;
+import com.github.enerccio.gson.tree.JsonPatternSet;
+import com.github.enerccio.gson.tree.LruJsonPatternCache;
 import com.github.enerccio.gson.visitors.IJsonElementEntry;
 import com.github.enerccio.gson.visitors.IJsonElementExit;
+import com.github.enerccio.gson.visitors.IJsonVisitorCollector;
 import com.github.enerccio.gson.visitors.IJsonVisitorListener;
 import com.github.enerccio.gson.visitors.JsonElementType;
+import com.github.enerccio.gson.visitors.JsonStreamVisitor;
 import com.github.enerccio.gson.visitors.JsonTreeVisitor;
+import com.github.enerccio.gson.visitors.ParallelJsonTreeVisitor;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 
@@ -45,6 +55,58 @@ public class JsonHelper {
 
 	}
 
+	/**
+	 * Callback receiving matches of the {@link JsonPatternSet}
+	 * 
+	 * @author pvan
+	 * @since 1.2.0
+	 */
+	public interface IJsonMatchCallback {
+
+		/**
+		 * Called for every pattern that matches the exited element
+		 * 
+		 * @param patternId
+		 *            id of the matching pattern
+		 * @param exit
+		 *            exited element
+		 * @since 1.2.0
+		 */
+		void onMatch(int patternId, IJsonElementExit exit);
+
+	}
+
+	private static final JsonTreeVisitor TREE_VISITOR = new JsonTreeVisitor();
+
+	private static volatile IJsonPatternCache patternCache = new LruJsonPatternCache(256);
+
+	/**
+	 * Sets cache of compiled patterns used by methods accepting String
+	 * patterns.
+	 * <p>
+	 * Default cache is {@link LruJsonPatternCache} holding 256 patterns.
+	 * 
+	 * @param cache
+	 *            cache to use
+	 * @since 1.2.0
+	 */
+	public static void setPatternCache(IJsonPatternCache cache) {
+		if (cache == null)
+			throw new NullPointerException("cache can't be null");
+		patternCache = cache;
+	}
+
+	/**
+	 * Returns cache of compiled patterns used by methods accepting String
+	 * patterns
+	 * 
+	 * @return pattern cache
+	 * @since 1.2.0
+	 */
+	public static IJsonPatternCache getPatternCache() {
+		return patternCache;
+	}
+
 	private static IJsonPredicate ACCEPT_ALL_PREDICATE = new IJsonPredicate() {
 
 		@Override
@@ -82,7 +144,7 @@ public class JsonHelper {
 	 * @since 1.1.0
 	 */
 	public static JsonElement getFirst(String json, JsonPatternMatcher matcher) {
-		return getFirst(GsonProvider.sharedGson.fromJson(json, JsonElement.class), matcher, ACCEPT_ALL_PREDICATE);
+		return getFirst(GsonProvider.getDefaultGson().fromJson(json, JsonElement.class), matcher, ACCEPT_ALL_PREDICATE);
 	}
 
 	/**
@@ -101,7 +163,7 @@ public class JsonHelper {
 	 * @since 1.1.0
 	 */
 	public static JsonElement getFirst(String json, String pattern, IJsonPredicate test) throws ParseException {
-		return getFirst(GsonProvider.sharedGson.fromJson(json, JsonElement.class), pattern, test);
+		return getFirst(GsonProvider.getDefaultGson().fromJson(json, JsonElement.class), pattern, test);
 	}
 
 	/**
@@ -137,7 +199,7 @@ public class JsonHelper {
 	 * @since 1.1.0
 	 */
 	public static JsonElement getFirst(JsonElement root, String pattern, IJsonPredicate test) throws ParseException {
-		JsonPatternMatcher matcher = new JsonPatternMatcher(pattern);
+		JsonPatternMatcher matcher = patternCache.get(pattern);
 		return getFirst(root, matcher, test);
 	}
 
@@ -156,28 +218,28 @@ public class JsonHelper {
 	 */
 	public static JsonElement getFirst(JsonElement root, final JsonPatternMatcher matcher, final IJsonPredicate test) {
 		final AtomicReference<JsonElement> target = new AtomicReference<JsonElement>(null);
+		final MatchState state = matcher.newMatchState();
 
-		JsonTreeVisitor visitor = new JsonTreeVisitor();
-		visitor.setListener(new IJsonVisitorListener() {
+		TREE_VISITOR.visit(root, new IJsonVisitorListener() {
 
 			@Override
 			public void onElementStart(IJsonElementEntry entry) {
-				if (target.get() != null)
+				state.sync(entry.getTree().size(), entry.getLastTreeInfo());
+				if (!state.canMatchSubtree())
 					entry.skip();
 			}
 
 			@Override
 			public void onElementEnd(IJsonElementExit exit) {
-				if (target.get() != null)
-					return;
-
-				if (exit.getType() != JsonElementType.PROPERTY && matcher.matches(exit.getTree())) {
-					if (test.test(exit.getElement()))
+				state.sync(exit.getTree().size(), exit.getLastTreeInfo());
+				if (exit.getType() != JsonElementType.PROPERTY && state.matches()) {
+					if (test.test(exit.getElement())) {
 						target.set(exit.getElement());
+						exit.stop();
+					}
 				}
 			}
 		});
-		visitor.visit(root);
 
 		return target.get();
 	}
@@ -213,7 +275,7 @@ public class JsonHelper {
 	 * @since 1.1.0
 	 */
 	public static List<JsonElement> getAll(String json, JsonPatternMatcher matcher) {
-		return getAll(GsonProvider.sharedGson.fromJson(json, JsonElement.class), matcher, ACCEPT_ALL_PREDICATE);
+		return getAll(GsonProvider.getDefaultGson().fromJson(json, JsonElement.class), matcher, ACCEPT_ALL_PREDICATE);
 	}
 
 	/**
@@ -234,7 +296,7 @@ public class JsonHelper {
 	 * @since 1.1.0
 	 */
 	public static List<JsonElement> getAll(String json, String pattern, IJsonPredicate test) throws ParseException {
-		return getAll(GsonProvider.sharedGson.fromJson(json, JsonElement.class), pattern, test);
+		return getAll(GsonProvider.getDefaultGson().fromJson(json, JsonElement.class), pattern, test);
 	}
 
 	/**
@@ -288,7 +350,7 @@ public class JsonHelper {
 	 */
 	public static List<JsonElement> getAll(JsonElement root, String pattern, IJsonPredicate test)
 			throws ParseException {
-		JsonPatternMatcher matcher = new JsonPatternMatcher(pattern);
+		JsonPatternMatcher matcher = patternCache.get(pattern);
 		return getAll(root, matcher, test);
 	}
 
@@ -311,6 +373,165 @@ public class JsonHelper {
 		return getN(root, matcher, test, Integer.MAX_VALUE);
 	}
 
+	/**
+	 * Returns all elements that matches the matcher in the json element and
+	 * passes the test, visiting large arrays and objects in parallel
+	 * <p>
+	 * Elements are returned in document order, same as
+	 * {@link #getAll(JsonElement, JsonPatternMatcher, IJsonPredicate)}. Test
+	 * is called from multiple threads.
+	 * 
+	 * @param root
+	 *            element to search
+	 * @param matcher
+	 *            matcher to match
+	 * @param test
+	 *            test
+	 * @param pool
+	 *            pool to run the visit in
+	 * @return elements that match
+	 * @since 1.2.0
+	 * @see ParallelJsonTreeVisitor
+	 */
+	public static List<JsonElement> getAll(JsonElement root, JsonPatternMatcher matcher, IJsonPredicate test,
+			ForkJoinPool pool) {
+		return new ParallelJsonTreeVisitor(pool).visit(root, new MatchCollector(matcher.newMatchState(), test));
+	}
+
+	/**
+	 * Collects elements matching the matcher in document order
+	 */
+	private static class MatchCollector implements IJsonVisitorCollector<List<JsonElement>> {
+
+		private final MatchState state;
+		private final IJsonPredicate test;
+		private final List<JsonElement> targets = new ArrayList<JsonElement>();
+
+		public MatchCollector(MatchState state, IJsonPredicate test) {
+			this.state = state;
+			this.test = test;
+		}
+
+		@Override
+		public void onElementStart(IJsonElementEntry entry) {
+			state.sync(entry.getTree().size(), entry.getLastTreeInfo());
+			if (!state.canMatchSubtree())
+				entry.skip();
+		}
+
+		@Override
+		public void onElementEnd(IJsonElementExit exit) {
+			state.sync(exit.getTree().size(), exit.getLastTreeInfo());
+			if (exit.getType() != JsonElementType.PROPERTY && state.matches()) {
+				if (test.test(exit.getElement()))
+					targets.add(exit.getElement());
+			}
+		}
+
+		@Override
+		public IJsonVisitorCollector<List<JsonElement>> fork() {
+			return new MatchCollector(state.copy(), test);
+		}
+
+		@Override
+		public void join(IJsonVisitorCollector<List<JsonElement>> other) {
+			targets.addAll(other.getResult());
+		}
+
+		@Override
+		public List<JsonElement> getResult() {
+			return targets;
+		}
+
+	}
+
+	/**
+	 * Returns all elements that match each pattern of the pattern set in the
+	 * JSON string
+	 * 
+	 * @param json
+	 *            string to search
+	 * @param patterns
+	 *            patterns to match
+	 * @return elements that match, one list per pattern id
+	 * @since 1.2.0
+	 */
+	public static List<List<JsonElement>> getAll(String json, JsonPatternSet patterns) {
+		return getAll(GsonProvider.getDefaultGson().fromJson(json, JsonElement.class), patterns);
+	}
+
+	/**
+	 * Returns all elements that match each pattern of the pattern set in the
+	 * json element
+	 * <p>
+	 * Whole set is matched in a single visit of the element.
+	 * 
+	 * @param root
+	 *            element to search
+	 * @param patterns
+	 *            patterns to match
+	 * @return elements that match, one list per pattern id
+	 * @since 1.2.0
+	 */
+	public static List<List<JsonElement>> getAll(JsonElement root, JsonPatternSet patterns) {
+		final List<List<JsonElement>> targets = new ArrayList<List<JsonElement>>();
+		for (int i = 0; i < patterns.size(); i++) {
+			targets.add(new ArrayList<JsonElement>());
+		}
+
+		TREE_VISITOR.visit(root, matchListener(patterns, new IJsonMatchCallback() {
+
+			@Override
+			public void onMatch(int patternId, IJsonElementExit exit) {
+				targets.get(patternId).add(exit.getElement());
+			}
+		}));
+
+		return targets;
+	}
+
+	/**
+	 * Creates visitor listener that matches pattern set against visited
+	 * elements and reports every match to the callback.
+	 * <p>
+	 * Subtrees that cannot match any pattern are skipped and matching elements
+	 * are retained, so listener can be used with both tree and lightweight
+	 * stream visitors. Listener holds matching state, so use new one for each
+	 * visit.
+	 * 
+	 * @param patterns
+	 *            patterns to match
+	 * @param callback
+	 *            callback receiving matches
+	 * @return listener
+	 * @since 1.2.0
+	 */
+	public static IJsonVisitorListener matchListener(JsonPatternSet patterns, final IJsonMatchCallback callback) {
+		final JsonPatternSet.MatchState state = patterns.newMatchState();
+		return new IJsonVisitorListener() {
+
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+				state.sync(entry.getTree().size(), entry.getLastTreeInfo());
+				if (!state.canMatchSubtree())
+					entry.skip();
+				else if (state.matches())
+					entry.retain();
+			}
+
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				if (exit.getType() == JsonElementType.PROPERTY)
+					return;
+
+				state.sync(exit.getTree().size(), exit.getLastTreeInfo());
+				for (int i = 0; i < state.getMatchCount(); i++) {
+					callback.onMatch(state.getMatch(i), exit);
+				}
+			}
+		};
+	}
+
 	/**
 	 * Returns up to n elements that matches the patter in the JSON string
 	 * <p>
@@ -346,7 +567,7 @@ public class JsonHelper {
 	 * @since 1.1.0
 	 */
 	public static List<JsonElement> getN(String json, JsonPatternMatcher matcher, int n) {
-		return getN(GsonProvider.sharedGson.fromJson(json, JsonElement.class), matcher, ACCEPT_ALL_PREDICATE, n);
+		return getN(GsonProvider.getDefaultGson().fromJson(json, JsonElement.class), matcher, ACCEPT_ALL_PREDICATE, n);
 	}
 
 	/**
@@ -370,7 +591,7 @@ public class JsonHelper {
 	 */
 	public static List<JsonElement> getN(String json, String pattern, IJsonPredicate test, int n)
 			throws ParseException {
-		return getN(GsonProvider.sharedGson.fromJson(json, JsonElement.class), pattern, test, n);
+		return getN(GsonProvider.getDefaultGson().fromJson(json, JsonElement.class), pattern, test, n);
 	}
 
 	/**
@@ -432,7 +653,7 @@ public class JsonHelper {
 	 */
 	public static List<JsonElement> getN(JsonElement root, String pattern, IJsonPredicate test, int n)
 			throws ParseException {
-		JsonPatternMatcher matcher = new JsonPatternMatcher(pattern);
+		JsonPatternMatcher matcher = patternCache.get(pattern);
 		return getN(root, matcher, test, n);
 	}
 
@@ -456,34 +677,183 @@ public class JsonHelper {
 	public static List<JsonElement> getN(JsonElement root, final JsonPatternMatcher matcher, final IJsonPredicate test,
 			final int n) {
 		final List<JsonElement> targets = new ArrayList<JsonElement>();
+		final MatchState state = matcher.newMatchState();
 
-		JsonTreeVisitor visitor = new JsonTreeVisitor();
-		visitor.setListener(new IJsonVisitorListener() {
+		TREE_VISITOR.visit(root, new IJsonVisitorListener() {
 
 			@Override
 			public void onElementStart(IJsonElementEntry entry) {
+				state.sync(entry.getTree().size(), entry.getLastTreeInfo());
 				if (targets.size() >= n) {
+					entry.stop();
+				} else if (!state.canMatchSubtree()) {
 					entry.skip();
 				}
 			}
 
 			@Override
 			public void onElementEnd(IJsonElementExit exit) {
-				if (targets.size() >= n) {
-					return;
-				}
-
-				if (exit.getType() != JsonElementType.PROPERTY && matcher.matches(exit.getTree())) {
-					if (test.test(exit.getElement()))
+				state.sync(exit.getTree().size(), exit.getLastTreeInfo());
+				if (exit.getType() != JsonElementType.PROPERTY && state.matches()) {
+					if (test.test(exit.getElement())) {
 						targets.add(exit.getElement());
+						if (targets.size() >= n)
+							exit.stop();
+					}
 				}
 			}
 		});
-		visitor.visit(root);
 
 		return targets;
 	}
 	
+	/**
+	 * Returns first element that matches the pattern in the JSON read from the
+	 * reader or null if no matches
+	 * <p>
+	 * Reading stops as soon as the element is found.
+	 * 
+	 * @param reader
+	 *            source of JSON, not closed
+	 * @param pattern
+	 *            pattern to match
+	 * @return element or null
+	 * @throws ParseException
+	 *             if pattern is malformed
+	 * @throws IOException
+	 *             when reading from reader fails
+	 * @since 1.2.0
+	 * @see #getN(Reader, JsonPatternMatcher, IJsonPredicate, int)
+	 */
+	public static JsonElement getFirst(Reader reader, String pattern) throws ParseException, IOException {
+		return getFirst(reader, patternCache.get(pattern), ACCEPT_ALL_PREDICATE);
+	}
+
+	/**
+	 * Returns first element that matches the matcher in the JSON read from the
+	 * reader and passes the test or null if no matches
+	 * <p>
+	 * Reading stops as soon as the element is found.
+	 * 
+	 * @param reader
+	 *            source of JSON, not closed
+	 * @param matcher
+	 *            matcher to match
+	 * @param test
+	 *            predicate to test
+	 * @return element or null
+	 * @throws IOException
+	 *             when reading from reader fails
+	 * @since 1.2.0
+	 * @see #getN(Reader, JsonPatternMatcher, IJsonPredicate, int)
+	 */
+	public static JsonElement getFirst(Reader reader, JsonPatternMatcher matcher, IJsonPredicate test)
+			throws IOException {
+		List<JsonElement> targets = getN(reader, matcher, test, 1);
+		return targets.isEmpty() ? null : targets.get(0);
+	}
+
+	/**
+	 * Returns all elements that matches the matcher in the JSON read from the
+	 * reader
+	 * 
+	 * @param reader
+	 *            source of JSON, not closed
+	 * @param matcher
+	 *            matcher to match
+	 * @return elements that match
+	 * @throws IOException
+	 *             when reading from reader fails
+	 * @since 1.2.0
+	 * @see #getN(Reader, JsonPatternMatcher, IJsonPredicate, int)
+	 */
+	public static List<JsonElement> getAll(Reader reader, JsonPatternMatcher matcher) throws IOException {
+		return getN(reader, matcher, ACCEPT_ALL_PREDICATE, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns up to n elements that matches the pattern in the JSON read from
+	 * the reader
+	 * 
+	 * @param reader
+	 *            source of JSON, not closed
+	 * @param pattern
+	 *            pattern to match
+	 * @param n
+	 *            maximum number of returned elements
+	 * @return elements that match
+	 * @throws ParseException
+	 *             if pattern is malformed
+	 * @throws IOException
+	 *             when reading from reader fails
+	 * @since 1.2.0
+	 * @see #getN(Reader, JsonPatternMatcher, IJsonPredicate, int)
+	 */
+	public static List<JsonElement> getN(Reader reader, String pattern, int n) throws ParseException, IOException {
+		return getN(reader, patternCache.get(pattern), ACCEPT_ALL_PREDICATE, n);
+	}
+
+	/**
+	 * Returns up to n elements that matches the matcher in the JSON read from
+	 * the reader and passes the test
+	 * <p>
+	 * JSON is visited by lightweight {@link JsonStreamVisitor}, so only
+	 * matching elements are built, subtrees that cannot match are skipped by
+	 * the reader and reading stops as soon as n elements are found. Reader is
+	 * left positioned after the last read token.
+	 * 
+	 * @param reader
+	 *            source of JSON, not closed
+	 * @param matcher
+	 *            matcher to match
+	 * @param test
+	 *            predicate to test
+	 * @param n
+	 *            maximum number of returned elements
+	 * @return elements that match
+	 * @throws IOException
+	 *             when reading from reader fails
+	 * @throws IllegalArgumentException
+	 *             when JSON is malformed
+	 * @since 1.2.0
+	 */
+	public static List<JsonElement> getN(Reader reader, JsonPatternMatcher matcher, final IJsonPredicate test,
+			final int n) throws IOException {
+		final List<JsonElement> targets = new ArrayList<JsonElement>();
+		if (n <= 0)
+			return targets;
+		final MatchState state = matcher.newMatchState();
+
+		JsonStreamVisitor visitor = new JsonStreamVisitor();
+		visitor.setLightweight(true);
+		visitor.visit(reader, new IJsonVisitorListener() {
+
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+				state.sync(entry.getTree().size(), entry.getLastTreeInfo());
+				if (!state.canMatchSubtree())
+					entry.skip();
+				else if (state.matches())
+					entry.retain();
+			}
+
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				if (exit.getType() == JsonElementType.PROPERTY)
+					return;
+
+				state.sync(exit.getTree().size(), exit.getLastTreeInfo());
+				if (state.matches() && test.test(exit.getElement())) {
+					targets.add(exit.getElement());
+					if (targets.size() >= n)
+						exit.stop();
+				}
+			}
+		});
+
+		return targets;
+	}
+
 	private static Field arrayElements;
 
 	/**
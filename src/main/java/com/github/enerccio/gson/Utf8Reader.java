@@ -0,0 +1,232 @@
+package com.github.enerccio.gson;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reader decoding UTF-8 bytes read from an {@link InputStream},
+ * {@link ReadableByteChannel} or {@link ByteBuffer}.
+ * <p>
+ * Bytes are decoded directly, without {@link java.nio.charset.CharsetDecoder},
+ * runs of ASCII bytes are copied character per byte. Malformed sequences are
+ * read as U+FFFD replacement character.
+ * <p>
+ * This reader is NOT thread safe!
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+public class Utf8Reader extends Reader {
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final char REPLACEMENT = '\ufffd';
+
+	private final InputStream stream;
+	private final ReadableByteChannel channel;
+	private final ByteBuffer in;
+	private boolean eof;
+	/**
+	 * low surrogate of already returned high surrogate, 0 if none
+	 */
+	private char lowSurrogate = 0;
+
+	/**
+	 * Creates reader reading from the stream
+	 *
+	 * @param in
+	 *            stream to read from
+	 * @since 1.2.0
+	 */
+	public Utf8Reader(InputStream in) {
+		this(in, null, null);
+	}
+
+	/**
+	 * Creates reader reading from the channel, channel is expected to be
+	 * blocking
+	 *
+	 * @param in
+	 *            channel to read from
+	 * @since 1.2.0
+	 */
+	public Utf8Reader(ReadableByteChannel in) {
+		this(null, in, null);
+	}
+
+	/**
+	 * Creates reader reading remaining bytes of the buffer. Position of the
+	 * buffer is advanced as bytes are read.
+	 *
+	 * @param in
+	 *            buffer to read from
+	 * @since 1.2.0
+	 */
+	public Utf8Reader(ByteBuffer in) {
+		this(null, null, in);
+	}
+
+	private Utf8Reader(InputStream stream, ReadableByteChannel channel, ByteBuffer buffer) {
+		if (stream == null && channel == null && buffer == null)
+			throw new NullPointerException("input can't be null");
+		this.stream = stream;
+		this.channel = channel;
+		if (buffer != null) {
+			this.in = buffer;
+			this.eof = true;
+		} else {
+			this.in = ByteBuffer.allocate(BUFFER_SIZE);
+			((Buffer) this.in).flip();
+			this.eof = false;
+		}
+	}
+
+	// positions are changed via Buffer, so classes compiled by newer javac
+	// run on older runtimes
+
+	/**
+	 * Reads more bytes into the buffer, keeping remaining ones
+	 *
+	 * @return true if any bytes were read
+	 */
+	private boolean fill() throws IOException {
+		if (eof)
+			return false;
+		in.compact();
+		int read;
+		try {
+			do {
+				if (stream != null) {
+					read = stream.read(in.array(), in.arrayOffset() + in.position(), in.remaining());
+					if (read > 0)
+						((Buffer) in).position(in.position() + read);
+				} else {
+					read = channel.read(in);
+				}
+			} while (read == 0);
+		} finally {
+			((Buffer) in).flip();
+		}
+		if (read < 0)
+			eof = true;
+		return read > 0;
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+		int n = off;
+		int end = off + len;
+		if (lowSurrogate != 0) {
+			cbuf[n++] = lowSurrogate;
+			lowSurrogate = 0;
+		}
+		while (n < end) {
+			if (!in.hasRemaining() && !fill())
+				break;
+			if (in.hasArray()) {
+				// ascii fast path, one character per byte
+				byte[] a = in.array();
+				int offset = in.arrayOffset();
+				int p = offset + in.position();
+				int stop = Math.min(offset + in.limit(), p + end - n);
+				while (p < stop && a[p] >= 0) {
+					cbuf[n++] = (char) a[p++];
+				}
+				((Buffer) in).position(p - offset);
+				if (n == end || !in.hasRemaining())
+					continue;
+			}
+			n = decode(cbuf, n, end);
+		}
+		return n == off ? -1 : n - off;
+	}
+
+	/**
+	 * Decodes single character or sequence at current position
+	 *
+	 * @return new position in cbuf
+	 */
+	private int decode(char[] cbuf, int n, int end) throws IOException {
+		int position = in.position();
+		int b0 = in.get(position) & 0xff;
+		if (b0 < 0x80) {
+			((Buffer) in).position(position + 1);
+			cbuf[n++] = (char) b0;
+			return n;
+		}
+
+		int need;
+		int min = 0x80;
+		int max = 0xbf;
+		if (b0 >= 0xc2 && b0 <= 0xdf) {
+			need = 2;
+		} else if (b0 >= 0xe0 && b0 <= 0xef) {
+			need = 3;
+			if (b0 == 0xe0)
+				min = 0xa0;
+			else if (b0 == 0xed)
+				max = 0x9f;
+		} else if (b0 >= 0xf0 && b0 <= 0xf4) {
+			need = 4;
+			if (b0 == 0xf0)
+				min = 0x90;
+			else if (b0 == 0xf4)
+				max = 0x8f;
+		} else {
+			((Buffer) in).position(position + 1);
+			cbuf[n++] = REPLACEMENT;
+			return n;
+		}
+
+		if (in.remaining() < need && fill()) {
+			// decode again with more bytes
+			return n;
+		}
+
+		int cp = b0 & (0xff >> (need + 1));
+		for (int i = 1; i < need; i++) {
+			if (i >= in.remaining()) {
+				// truncated at the end of input
+				((Buffer) in).position(position + i);
+				cbuf[n++] = REPLACEMENT;
+				return n;
+			}
+			int b = in.get(position + i) & 0xff;
+			if (b < (i == 1 ? min : 0x80) || b > (i == 1 ? max : 0xbf)) {
+				((Buffer) in).position(position + i);
+				cbuf[n++] = REPLACEMENT;
+				return n;
+			}
+			cp = (cp << 6) | (b & 0x3f);
+		}
+		((Buffer) in).position(position + need);
+
+		if (cp < 0x10000) {
+			cbuf[n++] = (char) cp;
+		} else {
+			cbuf[n++] = Character.highSurrogate(cp);
+			if (n < end)
+				cbuf[n++] = Character.lowSurrogate(cp);
+			else
+				lowSurrogate = Character.lowSurrogate(cp);
+		}
+		return n;
+	}
+
+	/**
+	 * Closes underlying stream or channel
+	 */
+	@Override
+	public void close() throws IOException {
+		if (stream != null)
+			stream.close();
+		else if (channel != null)
+			channel.close();
+	}
+
+}
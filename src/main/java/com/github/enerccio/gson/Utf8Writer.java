@@ -0,0 +1,263 @@
+package com.github.enerccio.gson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writer encoding characters into UTF-8 bytes written into an
+ * {@link OutputStream}, {@link WritableByteChannel} or {@link ByteBuffer}.
+ * <p>
+ * Characters are encoded directly, without {@link java.nio.charset.CharsetEncoder},
+ * runs of ASCII characters are copied byte per character. Unpaired surrogates
+ * are written as '?', same as {@link java.io.OutputStreamWriter} does. Bytes
+ * are buffered and written into the sink on {@link #flush()}, when buffer is
+ * full and on {@link #close()}.
+ * <p>
+ * This writer is NOT thread safe!
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+public class Utf8Writer extends Writer {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final OutputStream stream;
+	private final WritableByteChannel channel;
+	private final ByteBuffer target;
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private final ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+	private int position = 0;
+	/**
+	 * high surrogate waiting for its pair, 0 if none
+	 */
+	private char highSurrogate = 0;
+
+	/**
+	 * Creates writer writing into the stream
+	 *
+	 * @param out
+	 *            stream to write to
+	 * @since 1.2.0
+	 */
+	public Utf8Writer(OutputStream out) {
+		this(out, null, null);
+	}
+
+	/**
+	 * Creates writer writing into the channel, channel is expected to be
+	 * blocking
+	 *
+	 * @param out
+	 *            channel to write to
+	 * @since 1.2.0
+	 */
+	public Utf8Writer(WritableByteChannel out) {
+		this(null, out, null);
+	}
+
+	/**
+	 * Creates writer writing into the buffer, starting at its position.
+	 * Writing more bytes than buffer has remaining fails with
+	 * {@link BufferOverflowException}.
+	 *
+	 * @param out
+	 *            buffer to write to
+	 * @since 1.2.0
+	 */
+	public Utf8Writer(ByteBuffer out) {
+		this(null, null, out);
+	}
+
+	private Utf8Writer(OutputStream stream, WritableByteChannel channel, ByteBuffer target) {
+		if (stream == null && channel == null && target == null)
+			throw new NullPointerException("output can't be null");
+		this.stream = stream;
+		this.channel = channel;
+		this.target = target;
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		if (c < 0x80 && highSurrogate == 0) {
+			if (position == buffer.length)
+				drain();
+			buffer[position++] = (byte) c;
+		} else {
+			encode((char) c);
+		}
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		write(CharBuffer.wrap(cbuf), off, len);
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		write((CharSequence) str, off, len);
+	}
+
+	@Override
+	public Writer append(CharSequence csq) throws IOException {
+		if (csq == null)
+			csq = "null";
+		write(csq, 0, csq.length());
+		return this;
+	}
+
+	@Override
+	public Writer append(CharSequence csq, int start, int end) throws IOException {
+		if (csq == null)
+			csq = "null";
+		write(csq, start, end - start);
+		return this;
+	}
+
+	private void write(CharSequence s, int off, int len) throws IOException {
+		int end = off + len;
+		int i = off;
+		while (i < end) {
+			char c = s.charAt(i);
+			if (c < 0x80 && highSurrogate == 0) {
+				if (position == buffer.length)
+					drain();
+				// ascii fast path, one byte per character
+				int stop = Math.min(end, i + buffer.length - position);
+				byte[] b = buffer;
+				int p = position;
+				b[p++] = (byte) c;
+				i++;
+				while (i < stop && (c = s.charAt(i)) < 0x80) {
+					b[p++] = (byte) c;
+					i++;
+				}
+				position = p;
+			} else {
+				encode(c);
+				i++;
+			}
+		}
+	}
+
+	private void encode(char c) throws IOException {
+		if (buffer.length - position < 4)
+			drain();
+		if (highSurrogate != 0) {
+			char high = highSurrogate;
+			highSurrogate = 0;
+			if (Character.isLowSurrogate(c)) {
+				int cp = Character.toCodePoint(high, c);
+				buffer[position++] = (byte) (0xf0 | (cp >> 18));
+				buffer[position++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+				buffer[position++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+				buffer[position++] = (byte) (0x80 | (cp & 0x3f));
+				return;
+			}
+			buffer[position++] = '?';
+			encode(c);
+			return;
+		}
+		if (c < 0x80) {
+			buffer[position++] = (byte) c;
+		} else if (c < 0x800) {
+			buffer[position++] = (byte) (0xc0 | (c >> 6));
+			buffer[position++] = (byte) (0x80 | (c & 0x3f));
+		} else if (Character.isHighSurrogate(c)) {
+			highSurrogate = c;
+		} else if (Character.isLowSurrogate(c)) {
+			buffer[position++] = '?';
+		} else {
+			buffer[position++] = (byte) (0xe0 | (c >> 12));
+			buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+			buffer[position++] = (byte) (0x80 | (c & 0x3f));
+		}
+	}
+
+	/**
+	 * Writes bytes that are already UTF-8 encoded
+	 *
+	 * @param bytes
+	 *            encoded bytes
+	 * @param off
+	 *            offset of the first byte
+	 * @param len
+	 *            number of bytes
+	 * @throws IOException
+	 *             when writing into sink fails
+	 * @since 1.2.0
+	 */
+	public void writeEncoded(byte[] bytes, int off, int len) throws IOException {
+		unpairedSurrogate();
+		if (len > buffer.length - position) {
+			drain();
+			if (len > buffer.length) {
+				output(bytes, off, len);
+				return;
+			}
+		}
+		System.arraycopy(bytes, off, buffer, position, len);
+		position += len;
+	}
+
+	private void unpairedSurrogate() throws IOException {
+		if (highSurrogate != 0) {
+			highSurrogate = 0;
+			write('?');
+		}
+	}
+
+	private void drain() throws IOException {
+		if (position > 0) {
+			output(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	private void output(byte[] bytes, int off, int len) throws IOException {
+		if (stream != null) {
+			stream.write(bytes, off, len);
+		} else if (channel != null) {
+			ByteBuffer b = bytes == buffer ? wrapped : ByteBuffer.wrap(bytes);
+			((Buffer) b).limit(off + len);
+			((Buffer) b).position(off);
+			while (b.hasRemaining()) {
+				channel.write(b);
+			}
+		} else {
+			target.put(bytes, off, len);
+		}
+	}
+
+	/**
+	 * Writes buffered bytes into the sink and flushes the stream
+	 */
+	@Override
+	public void flush() throws IOException {
+		drain();
+		if (stream != null)
+			stream.flush();
+	}
+
+	/**
+	 * Flushes and closes underlying stream or channel. Unpaired high surrogate
+	 * at the end is written as '?'.
+	 */
+	@Override
+	public void close() throws IOException {
+		unpairedSurrogate();
+		flush();
+		if (stream != null)
+			stream.close();
+		else if (channel != null)
+			channel.close();
+	}
+
+}
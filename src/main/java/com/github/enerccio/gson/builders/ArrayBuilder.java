@@ -16,6 +16,20 @@ class ArrayBuilder extends BaseBuilder {
 		prevLevel.setCurrentLevelElement(currentArray = new JsonArray());
 	}
 
+	/**
+	 * Reuses this builder for new array under provided level
+	 */
+	ArrayBuilder reuse(BaseBuilder valueBuilder) {
+		setPrevLevel(valueBuilder);
+		prevLevel.setCurrentLevelElement(currentArray = new JsonArray());
+		return this;
+	}
+
+	@Override
+	void release() {
+		currentArray = null;
+	}
+
 	@Override
 	public JsonElement getCurrentLevelElement() {
 		return currentArray;
@@ -28,12 +42,12 @@ class ArrayBuilder extends BaseBuilder {
 
 	@Override
 	public ObjectBuilder object() {
-		return new ObjectBuilder(this);
+		return level.owner.objectBuilder(this);
 	}
 
 	@Override
 	public ArrayBuilder array() {
-		return new ArrayBuilder(this);
+		return level.owner.arrayBuilder(this);
 	}
 
 	@Override
@@ -68,13 +82,13 @@ class ArrayBuilder extends BaseBuilder {
 
 	@Override
 	public ValueBuilder object(IObjectBuilder builder) {
-		builder.build(new ObjectFacade(this));
+		builder.build(level.owner.objectFacade(this, null));
 		return this;
 	}
 
 	@Override
 	public ValueBuilder array(IArrayBuilder builder) {
-		builder.build(new ArrayFacade(this));
+		builder.build(level.owner.arrayFacade(this, null));
 		return this;
 	}
 
@@ -24,6 +24,25 @@ class ArrayFacade extends PreviousLevelAccessor implements IArrayFacade {
 		previousLevelAccessor.setCurrentLevelElement(array, property);
 	}
 
+	/**
+	 * Reuses this facade for new array under provided level, property is null
+	 * when array is not a property
+	 */
+	ArrayFacade reuse(PreviousLevelAccessor previousLevelAccessor, String property) {
+		setPrevLevelAccessor(previousLevelAccessor);
+		this.array = new JsonArray();
+		if (property == null)
+			previousLevelAccessor.setCurrentLevelElement(array);
+		else
+			previousLevelAccessor.setCurrentLevelElement(array, property);
+		return this;
+	}
+
+	@Override
+	void release() {
+		array = null;
+	}
+
 	@Override
 	protected void setCurrentLevelElement(JsonElement e) {
 		this.array.add(e);
@@ -51,12 +70,12 @@ class ArrayFacade extends PreviousLevelAccessor implements IArrayFacade {
 
 	@Override
 	public void addArray(IArrayBuilder arrayBuilder) {
-		arrayBuilder.build(new ArrayFacade(this));
+		arrayBuilder.build(level.owner.arrayFacade(this, null));
 	}
 
 	@Override
 	public void addObject(IObjectBuilder objectBuilder) {
-		objectBuilder.build(new ObjectFacade(this));
+		objectBuilder.build(level.owner.objectFacade(this, null));
 	}
 
 	@Override
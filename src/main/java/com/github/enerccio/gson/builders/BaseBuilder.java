@@ -1,5 +1,10 @@
 package com.github.enerccio.gson.builders;
 
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import com.github.enerccio.gson.JsonFormat;
 import com.github.enerccio.gson.builders.functional.IArrayBuilder;
 import com.github.enerccio.gson.builders.functional.IObjectBuilder;
 import com.google.gson.JsonElement;
@@ -16,6 +21,17 @@ class BaseBuilder extends PreviousLevelAccessor implements ValueBuilder {
 		prevLevel = valueBuilder;
 	}
 
+	/**
+	 * Attaches this builder under previous level
+	 * 
+	 * @param valueBuilder
+	 * @since 1.2.0
+	 */
+	void setPrevLevel(BaseBuilder valueBuilder) {
+		setPrevLevelAccessor(valueBuilder);
+		prevLevel = valueBuilder;
+	}
+
 	@Override
 	public ValueBuilder end() {
 		if (prevLevel instanceof ObjectPropertyBuilder)
@@ -63,6 +79,26 @@ class BaseBuilder extends PreviousLevelAccessor implements ValueBuilder {
 		return prevLevel.toJson();
 	}
 
+	@Override
+	public String toJson(JsonFormat format) {
+		return prevLevel.toJson(format);
+	}
+
+	@Override
+	public void toJson(OutputStream out, JsonFormat format) {
+		prevLevel.toJson(out, format);
+	}
+
+	@Override
+	public void toJson(WritableByteChannel out, JsonFormat format) {
+		prevLevel.toJson(out, format);
+	}
+
+	@Override
+	public void toJson(ByteBuffer out, JsonFormat format) {
+		prevLevel.toJson(out, format);
+	}
+
 	@Override
 	public JsonElement toJsonTree() {
 		return prevLevel.toJsonTree();
@@ -1,10 +1,18 @@
 package com.github.enerccio.gson.builders;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
 import com.github.enerccio.gson.GsonProvider;
+import com.github.enerccio.gson.JsonFormat;
+import com.github.enerccio.gson.Utf8Writer;
 import com.github.enerccio.gson.builders.functional.IArrayBuilder;
 import com.github.enerccio.gson.builders.functional.IObjectBuilder;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonNull;
 import com.google.gson.JsonPrimitive;
 
@@ -12,6 +20,11 @@ import com.google.gson.JsonPrimitive;
  * Creates JsonBuilder to create JSON values via builder pattern.
  * 
  * This builder is NOT thread safe!
+ * <p>
+ * Builder can be reused for another json after {@link #reset()}. Reusable
+ * builder (see {@link #setReusable(boolean)}) also reuses builders of the
+ * nested levels, so building json does not allocate anything but json
+ * elements themselves.
  * 
  * @author pvan
  *
@@ -19,19 +32,69 @@ import com.google.gson.JsonPrimitive;
 public class JsonBuilder extends BaseBuilder {
 
 	/**
-	 * Serializer used
+	 * Serializer used, null for default gson
 	 */
-	private Gson gson = GsonProvider.sharedGson;
+	private Gson gson;
 	/**
 	 * Root element
 	 */
 	private JsonElement root;
+	/**
+	 * Whether level builders are reused
+	 */
+	private boolean reusable = false;
+
+	/**
+	 * Single nesting depth, holds reused builders of that depth. Only one of
+	 * them is in use at any time.
+	 */
+	static class Level {
+		/**
+		 * builder this level belongs to
+		 */
+		final JsonBuilder owner;
+		private Level next;
+		private ObjectBuilder object;
+		private ArrayBuilder array;
+		private ObjectPropertyBuilder property;
+		private ObjectFacade objectFacade;
+		private ArrayFacade arrayFacade;
+
+		private Level(JsonBuilder owner) {
+			this.owner = owner;
+		}
+
+		/**
+		 * Returns level nested in this level
+		 * 
+		 * @return next level
+		 */
+		Level next() {
+			if (next == null)
+				next = new Level(owner);
+			return next;
+		}
+
+		private void release() {
+			release(object);
+			release(array);
+			release(property);
+			release(objectFacade);
+			release(arrayFacade);
+		}
+
+		private static void release(PreviousLevelAccessor level) {
+			if (level != null)
+				level.release();
+		}
+	}
 
 	/**
 	 * Default Json builder
 	 */
 	public JsonBuilder() {
 		super(null);
+		level = new Level(this);
 	}
 
 	/**
@@ -39,13 +102,143 @@ public class JsonBuilder extends BaseBuilder {
 	 * 
 	 * @param gson
 	 *            what gson to use
-	 * @see {@link GsonProvider#sharedGson}
+	 * @see {@link GsonProvider#getDefaultGson()}
 	 */
 	public JsonBuilder(Gson gson) {
 		super(null);
+		level = new Level(this);
 		setGson(gson);
 	}
 
+	/**
+	 * Sets whether builders of nested levels are reused.
+	 * <p>
+	 * Reused builders are only valid until their level is ended, do not keep
+	 * references to them. Intended for builders kept for repeated use, ie in a
+	 * thread local, together with {@link #reset()}. Change it only before
+	 * building a json.
+	 * 
+	 * @param reusable
+	 * @return this builder
+	 * @since 1.2.0
+	 */
+	public JsonBuilder setReusable(boolean reusable) {
+		this.reusable = reusable;
+		return this;
+	}
+
+	/**
+	 * Whether builders of nested levels are reused
+	 * 
+	 * @return true if reusable
+	 * @since 1.2.0
+	 */
+	public boolean isReusable() {
+		return reusable;
+	}
+
+	/**
+	 * Discards json built so far, so this builder can build another json.
+	 * 
+	 * @return this builder
+	 * @since 1.2.0
+	 */
+	public JsonBuilder reset() {
+		root = null;
+		for (Level l = level.next; l != null; l = l.next) {
+			l.release();
+		}
+		return this;
+	}
+
+	// factories are kept small, so the allocation of not reused builders is
+	// inlined into callers and can be eliminated by escape analysis
+
+	ObjectBuilder objectBuilder(BaseBuilder prev) {
+		if (!reusable)
+			return new ObjectBuilder(prev);
+		return reuseObjectBuilder(prev);
+	}
+
+	ArrayBuilder arrayBuilder(BaseBuilder prev) {
+		if (!reusable)
+			return new ArrayBuilder(prev);
+		return reuseArrayBuilder(prev);
+	}
+
+	ObjectPropertyBuilder propertyBuilder(BaseBuilder prev, String name) {
+		if (!reusable)
+			return new ObjectPropertyBuilder(prev, name);
+		return reusePropertyBuilder(prev, name);
+	}
+
+	ObjectFacade objectFacade(PreviousLevelAccessor prev, String property) {
+		if (!reusable)
+			return property == null ? new ObjectFacade(prev) : new ObjectFacade(prev, property);
+		return reuseObjectFacade(prev, property);
+	}
+
+	ArrayFacade arrayFacade(PreviousLevelAccessor prev, String property) {
+		if (!reusable)
+			return property == null ? new ArrayFacade(prev) : new ArrayFacade(prev, property);
+		return reuseArrayFacade(prev, property);
+	}
+
+	private ObjectBuilder reuseObjectBuilder(BaseBuilder prev) {
+		Level next = prev.level.next();
+		ObjectBuilder builder;
+		if (next.object == null)
+			builder = next.object = new ObjectBuilder(prev);
+		else
+			builder = next.object.reuse(prev);
+		builder.level = next;
+		return builder;
+	}
+
+	private ArrayBuilder reuseArrayBuilder(BaseBuilder prev) {
+		Level next = prev.level.next();
+		ArrayBuilder builder;
+		if (next.array == null)
+			builder = next.array = new ArrayBuilder(prev);
+		else
+			builder = next.array.reuse(prev);
+		builder.level = next;
+		return builder;
+	}
+
+	private ObjectPropertyBuilder reusePropertyBuilder(BaseBuilder prev, String name) {
+		Level next = prev.level.next();
+		ObjectPropertyBuilder builder;
+		if (next.property == null)
+			builder = next.property = new ObjectPropertyBuilder(prev, name);
+		else
+			builder = next.property.reuse(prev, name);
+		builder.level = next;
+		return builder;
+	}
+
+	private ObjectFacade reuseObjectFacade(PreviousLevelAccessor prev, String property) {
+		Level next = prev.level.next();
+		ObjectFacade facade;
+		if (next.objectFacade == null)
+			facade = next.objectFacade = property == null ? new ObjectFacade(prev) : new ObjectFacade(prev, property);
+		else
+			facade = next.objectFacade.reuse(prev, property);
+		facade.level = next;
+		return facade;
+	}
+
+	private ArrayFacade reuseArrayFacade(PreviousLevelAccessor prev, String property) {
+		Level next = prev.level.next();
+		ArrayFacade facade;
+		if (next.arrayFacade == null)
+			facade = next.arrayFacade = property == null ? new ArrayFacade(prev) : new ArrayFacade(prev, property);
+		else
+			facade = next.arrayFacade.reuse(prev, property);
+		facade.level = next;
+		return facade;
+	}
+
 	/**
 	 * Change gson serializer to this gson
 	 * 
@@ -53,7 +246,7 @@ public class JsonBuilder extends BaseBuilder {
 	 * @return this builder
 	 * @throws {@link
 	 *             NullPointerException} when gson instance is null
-	 * @see {@link GsonProvider#sharedGson}
+	 * @see {@link GsonProvider#getDefaultGson()}
 	 */
 	public JsonBuilder setGson(Gson gson) {
 		if (gson == null)
@@ -66,7 +259,44 @@ public class JsonBuilder extends BaseBuilder {
 	public String toJson() {
 		if (root == null)
 			throw new IllegalStateException();
-		return gson.toJson(root);
+		return (gson == null ? GsonProvider.getDefaultGson() : gson).toJson(root);
+	}
+
+	/**
+	 * Returns generated json in requested format, ignoring gson of this
+	 * builder.
+	 */
+	@Override
+	public String toJson(JsonFormat format) {
+		if (root == null)
+			throw new IllegalStateException();
+		return format.getGson().toJson(root);
+	}
+
+	@Override
+	public void toJson(OutputStream out, JsonFormat format) {
+		write(new Utf8Writer(out), format);
+	}
+
+	@Override
+	public void toJson(WritableByteChannel out, JsonFormat format) {
+		write(new Utf8Writer(out), format);
+	}
+
+	@Override
+	public void toJson(ByteBuffer out, JsonFormat format) {
+		write(new Utf8Writer(out), format);
+	}
+
+	private void write(Utf8Writer writer, JsonFormat format) {
+		if (root == null)
+			throw new IllegalStateException();
+		format.getGson().toJson(root, writer);
+		try {
+			writer.flush();
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
 	}
 
 	@Override
@@ -93,12 +323,12 @@ public class JsonBuilder extends BaseBuilder {
 
 	@Override
 	public ValueBuilder object() {
-		return new ObjectBuilder(this);
+		return level.owner.objectBuilder(this);
 	}
 
 	@Override
 	public ValueBuilder array() {
-		return new ArrayBuilder(this);
+		return level.owner.arrayBuilder(this);
 	}
 
 	@Override
@@ -138,13 +368,13 @@ public class JsonBuilder extends BaseBuilder {
 
 	@Override
 	public ValueBuilder object(IObjectBuilder builder) {
-		builder.build(new ObjectFacade(this));
+		builder.build(level.owner.objectFacade(this, null));
 		return this;
 	}
 
 	@Override
 	public ValueBuilder array(IArrayBuilder builder) {
-		builder.build(new ArrayFacade(this));
+		builder.build(level.owner.arrayFacade(this, null));
 		return this;
 	}
 
@@ -0,0 +1,406 @@
+package com.github.enerccio.gson.builders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.github.enerccio.gson.JsonFormat;
+import com.github.enerccio.gson.Utf8Writer;
+import com.github.enerccio.gson.builders.functional.IArrayBuilder;
+import com.github.enerccio.gson.builders.functional.IArrayFacade;
+import com.github.enerccio.gson.builders.functional.IObjectBuilder;
+import com.github.enerccio.gson.builders.functional.IObjectFacade;
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Precompiled json of fixed shape with named slots for values that change.
+ * <p>
+ * Constant parts of the json, ie keys, punctuation and constant values, are
+ * encoded once when template is compiled, both as characters and UTF-8 bytes,
+ * rendering only escapes and writes slot values between them. Templates are
+ * immutable and thread safe.
+ * <p>
+ * Templates are created via {@link TemplateBuilder} or from functional
+ * builders via {@link #compile(IObjectBuilder)}, where slots are put via
+ * {@link #putSlot(IObjectFacade, String, String)} and
+ * {@link #addSlot(IArrayFacade, String)}.
+ * <p>
+ * Slot values can be strings, numbers, booleans, characters, null or any
+ * other value gson can serialize, including {@link com.google.gson.JsonElement}.
+ * Unlike builders, null values are written as null, since keys of the
+ * template are fixed. Numbers must be finite, NaN and infinities are rejected
+ * with {@link IllegalArgumentException}. Values other than primitives are written compact even
+ * in pretty format.
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+public class JsonTemplate {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final String[] REPLACEMENT_CHARS;
+	private static final String[] HTML_SAFE_REPLACEMENT_CHARS;
+
+	static {
+		REPLACEMENT_CHARS = new String[128];
+		for (int i = 0; i <= 0x1f; i++) {
+			REPLACEMENT_CHARS[i] = String.format("\\u%04x", i);
+		}
+		REPLACEMENT_CHARS['"'] = "\\\"";
+		REPLACEMENT_CHARS['\\'] = "\\\\";
+		REPLACEMENT_CHARS['\t'] = "\\t";
+		REPLACEMENT_CHARS['\b'] = "\\b";
+		REPLACEMENT_CHARS['\n'] = "\\n";
+		REPLACEMENT_CHARS['\r'] = "\\r";
+		REPLACEMENT_CHARS['\f'] = "\\f";
+		HTML_SAFE_REPLACEMENT_CHARS = REPLACEMENT_CHARS.clone();
+		HTML_SAFE_REPLACEMENT_CHARS['<'] = "\\u003c";
+		HTML_SAFE_REPLACEMENT_CHARS['>'] = "\\u003e";
+		HTML_SAFE_REPLACEMENT_CHARS['&'] = "\\u0026";
+		HTML_SAFE_REPLACEMENT_CHARS['='] = "\\u003d";
+		HTML_SAFE_REPLACEMENT_CHARS['\''] = "\\u0027";
+	}
+
+	private final JsonFormat format;
+	/**
+	 * constant parts of the json, one more than slots
+	 */
+	private final String[] fragments;
+	/**
+	 * fragments encoded in UTF-8
+	 */
+	private final byte[][] encodedFragments;
+	private final String[] slots;
+	private final int constantLength;
+
+	JsonTemplate(JsonFormat format, String[] fragments, String[] slots) {
+		this.format = format;
+		this.fragments = fragments;
+		this.slots = slots;
+		this.encodedFragments = new byte[fragments.length][];
+		int length = 0;
+		for (int i = 0; i < fragments.length; i++) {
+			encodedFragments[i] = fragments[i].getBytes(UTF_8);
+			length += fragments[i].length();
+		}
+		this.constantLength = length;
+	}
+
+	/**
+	 * Compiles template of compact json object described by functional
+	 * builder
+	 *
+	 * @param builder
+	 *            description of the object
+	 * @return compiled template
+	 * @since 1.2.0
+	 */
+	public static JsonTemplate compile(IObjectBuilder builder) {
+		return compile(builder, JsonFormat.COMPACT);
+	}
+
+	/**
+	 * Compiles template of json object in requested format described by
+	 * functional builder
+	 *
+	 * @param builder
+	 *            description of the object
+	 * @param format
+	 *            output format
+	 * @return compiled template
+	 * @since 1.2.0
+	 */
+	public static JsonTemplate compile(IObjectBuilder builder, JsonFormat format) {
+		TemplateBuilder b = new TemplateBuilder(format);
+		b.object(builder);
+		return b.compile();
+	}
+
+	/**
+	 * Compiles template of compact json array described by functional builder
+	 *
+	 * @param builder
+	 *            description of the array
+	 * @return compiled template
+	 * @since 1.2.0
+	 */
+	public static JsonTemplate compile(IArrayBuilder builder) {
+		return compile(builder, JsonFormat.COMPACT);
+	}
+
+	/**
+	 * Compiles template of json array in requested format described by
+	 * functional builder
+	 *
+	 * @param builder
+	 *            description of the array
+	 * @param format
+	 *            output format
+	 * @return compiled template
+	 * @since 1.2.0
+	 */
+	public static JsonTemplate compile(IArrayBuilder builder, JsonFormat format) {
+		TemplateBuilder b = new TemplateBuilder(format);
+		b.array(builder);
+		return b.compile();
+	}
+
+	/**
+	 * Puts named slot as value of the property. Only usable within functional
+	 * builders passed to compile methods.
+	 *
+	 * @param object
+	 *            facade of the compiled object
+	 * @param property
+	 * @param slot
+	 *            name of the slot
+	 * @throws IllegalArgumentException
+	 *             when facade does not belong to compiled template
+	 * @since 1.2.0
+	 */
+	public static void putSlot(IObjectFacade object, String property, String slot) {
+		if (!(object instanceof TemplateBuilder))
+			throw new IllegalArgumentException("facade does not belong to compiled template");
+		((TemplateBuilder) object).slot(property, slot);
+	}
+
+	/**
+	 * Adds named slot to the array. Only usable within functional builders
+	 * passed to compile methods.
+	 *
+	 * @param array
+	 *            facade of the compiled array
+	 * @param slot
+	 *            name of the slot
+	 * @throws IllegalArgumentException
+	 *             when facade does not belong to compiled template
+	 * @since 1.2.0
+	 */
+	public static void addSlot(IArrayFacade array, String slot) {
+		if (!(array instanceof TemplateBuilder))
+			throw new IllegalArgumentException("facade does not belong to compiled template");
+		TemplateBuilder b = (TemplateBuilder) array;
+		b.checkScope(false);
+		b.slot(slot);
+	}
+
+	/**
+	 * Returns format of the template
+	 *
+	 * @return format
+	 * @since 1.2.0
+	 */
+	public JsonFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Returns names of the slots in order of their appearance, name is
+	 * repeated when it is used for more slots
+	 *
+	 * @return names of the slots
+	 * @since 1.2.0
+	 */
+	public List<String> getSlots() {
+		return Collections.unmodifiableList(Arrays.asList(slots));
+	}
+
+	/**
+	 * Renders json with slots filled with provided values
+	 *
+	 * @param values
+	 *            values of the slots by their names
+	 * @return rendered json
+	 * @throws IllegalArgumentException
+	 *             when value of a slot is missing
+	 * @since 1.2.0
+	 */
+	public String render(Map<String, ?> values) {
+		StringBuilder out = new StringBuilder(constantLength + slots.length * 16);
+		try {
+			render(values, out);
+		} catch (IOException e) {
+			// can't happen with string builder
+			throw new JsonIOException(e);
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Renders json with slots filled with provided values into the writer
+	 *
+	 * @param values
+	 *            values of the slots by their names
+	 * @param out
+	 *            writer to write to
+	 * @throws IllegalArgumentException
+	 *             when value of a slot is missing
+	 * @throws JsonIOException
+	 *             when writing fails
+	 * @since 1.2.0
+	 */
+	public void render(Map<String, ?> values, Writer out) {
+		try {
+			render(values, (Appendable) out);
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+	}
+
+	/**
+	 * Renders json with slots filled with provided values as UTF-8 bytes into
+	 * the stream. Stream is flushed, but not closed.
+	 *
+	 * @param values
+	 *            values of the slots by their names
+	 * @param out
+	 *            stream to write to
+	 * @throws IllegalArgumentException
+	 *             when value of a slot is missing
+	 * @throws JsonIOException
+	 *             when writing fails
+	 * @since 1.2.0
+	 */
+	public void render(Map<String, ?> values, OutputStream out) {
+		render(values, new Utf8Writer(out));
+	}
+
+	/**
+	 * Renders json with slots filled with provided values as UTF-8 bytes into
+	 * the channel. Channel is not closed.
+	 *
+	 * @param values
+	 *            values of the slots by their names
+	 * @param out
+	 *            channel to write to
+	 * @throws IllegalArgumentException
+	 *             when value of a slot is missing
+	 * @throws JsonIOException
+	 *             when writing fails
+	 * @since 1.2.0
+	 */
+	public void render(Map<String, ?> values, WritableByteChannel out) {
+		render(values, new Utf8Writer(out));
+	}
+
+	/**
+	 * Renders json with slots filled with provided values as UTF-8 bytes into
+	 * the buffer, starting at its position.
+	 *
+	 * @param values
+	 *            values of the slots by their names
+	 * @param out
+	 *            buffer to write to
+	 * @throws IllegalArgumentException
+	 *             when value of a slot is missing
+	 * @throws java.nio.BufferOverflowException
+	 *             when json does not fit into the buffer
+	 * @since 1.2.0
+	 */
+	public void render(Map<String, ?> values, ByteBuffer out) {
+		render(values, new Utf8Writer(out));
+	}
+
+	private void render(Map<String, ?> values, Utf8Writer out) {
+		try {
+			for (int i = 0; i < slots.length; i++) {
+				out.writeEncoded(encodedFragments[i], 0, encodedFragments[i].length);
+				writeValue(value(values, i), out);
+			}
+			byte[] last = encodedFragments[slots.length];
+			out.writeEncoded(last, 0, last.length);
+			out.flush();
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+	}
+
+	private Object value(Map<String, ?> values, int slot) {
+		Object value = values.get(slots[slot]);
+		if (value == null && !values.containsKey(slots[slot]))
+			throw new IllegalArgumentException("missing value of slot " + slots[slot]);
+		return value;
+	}
+
+	private void render(Map<String, ?> values, Appendable out) throws IOException {
+		for (int i = 0; i < slots.length; i++) {
+			out.append(fragments[i]);
+			writeValue(value(values, i), out);
+		}
+		out.append(fragments[slots.length]);
+	}
+
+	private void writeValue(Object value, Appendable out) throws IOException {
+		if (value == null) {
+			out.append("null");
+		} else if (value instanceof String) {
+			writeString((String) value, out);
+		} else if (value instanceof Number) {
+			String number = value.toString();
+			// same check as non lenient JsonWriter does
+			if (number.equals("NaN") || number.equals("Infinity") || number.equals("-Infinity"))
+				throw new IllegalArgumentException("Numeric values must be finite, but was " + number);
+			out.append(number);
+		} else if (value instanceof Boolean) {
+			out.append(value.toString());
+		} else if (value instanceof Character) {
+			writeString(value.toString(), out);
+		} else if (out instanceof Writer) {
+			writeObject(value, (Writer) out);
+		} else {
+			StringWriter buffer = new StringWriter();
+			writeObject(value, buffer);
+			out.append(buffer.getBuffer());
+		}
+	}
+
+	private void writeObject(Object value, Writer out) {
+		Gson gson = format.isHtmlSafe() ? JsonFormat.COMPACT.getGson() : JsonFormat.COMPACT_UNESCAPED.getGson();
+		JsonWriter writer = new JsonWriter(out);
+		writer.setSerializeNulls(false);
+		gson.toJson(value, value.getClass(), writer);
+	}
+
+	/**
+	 * Writes quoted string escaped the same way gson does
+	 */
+	private void writeString(String value, Appendable out) throws IOException {
+		String[] replacements = format.isHtmlSafe() ? HTML_SAFE_REPLACEMENT_CHARS : REPLACEMENT_CHARS;
+		out.append('"');
+		int last = 0;
+		int length = value.length();
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			String replacement;
+			if (c < 128) {
+				replacement = replacements[c];
+				if (replacement == null)
+					continue;
+			} else if (c == '\u2028') {
+				replacement = "\\u2028";
+			} else if (c == '\u2029') {
+				replacement = "\\u2029";
+			} else {
+				continue;
+			}
+			if (last < i)
+				out.append(value, last, i);
+			out.append(replacement);
+			last = i + 1;
+		}
+		if (last < length)
+			out.append(value, last, length);
+		out.append('"');
+	}
+
+}
@@ -12,6 +12,20 @@ class ObjectBuilder extends BaseBuilder {
 		prevLevel.setCurrentLevelElement(currentObject = new JsonObject());
 	}
 
+	/**
+	 * Reuses this builder for new object under provided level
+	 */
+	ObjectBuilder reuse(BaseBuilder valueBuilder) {
+		setPrevLevel(valueBuilder);
+		prevLevel.setCurrentLevelElement(currentObject = new JsonObject());
+		return this;
+	}
+
+	@Override
+	void release() {
+		currentObject = null;
+	}
+
 	@Override
 	public JsonElement getCurrentLevelElement() {
 		return currentObject;
@@ -19,7 +33,7 @@ class ObjectBuilder extends BaseBuilder {
 
 	@Override
 	public ValueBuilder property(String name) {
-		return new ObjectPropertyBuilder(this, name);
+		return level.owner.propertyBuilder(this, name);
 	}
 
 }
@@ -24,6 +24,25 @@ class ObjectFacade extends PreviousLevelAccessor implements IObjectFacade {
 		prevLevelAccessor.setCurrentLevelElement(object, property);
 	}
 
+	/**
+	 * Reuses this facade for new object under provided level, property is
+	 * null when object is not a property
+	 */
+	ObjectFacade reuse(PreviousLevelAccessor prevLevelAccessor, String property) {
+		setPrevLevelAccessor(prevLevelAccessor);
+		this.object = new JsonObject();
+		if (property == null)
+			prevLevelAccessor.setCurrentLevelElement(object);
+		else
+			prevLevelAccessor.setCurrentLevelElement(object, property);
+		return this;
+	}
+
+	@Override
+	void release() {
+		object = null;
+	}
+
 	@Override
 	protected void setCurrentLevelElement(JsonElement e, String property) {
 		this.object.add(property, e);
@@ -51,12 +70,12 @@ class ObjectFacade extends PreviousLevelAccessor implements IObjectFacade {
 
 	@Override
 	public void putArray(String property, IArrayBuilder arrayBuilder) {
-		arrayBuilder.build(new ArrayFacade(this, property));
+		arrayBuilder.build(level.owner.arrayFacade(this, property));
 	}
 
 	@Override
 	public void putObject(String property, IObjectBuilder objectBuilder) {
-		objectBuilder.build(new ObjectFacade(this, property));
+		objectBuilder.build(level.owner.objectFacade(this, property));
 	}
 
 	@Override
@@ -1,5 +1,10 @@
 package com.github.enerccio.gson.builders;
 
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import com.github.enerccio.gson.JsonFormat;
 import com.github.enerccio.gson.builders.functional.IArrayBuilder;
 import com.github.enerccio.gson.builders.functional.IObjectBuilder;
 import com.google.gson.JsonElement;
@@ -16,6 +21,20 @@ class ObjectPropertyBuilder extends BaseBuilder {
 		this.currentName = name;
 	}
 
+	/**
+	 * Reuses this builder for new property of provided object level
+	 */
+	ObjectPropertyBuilder reuse(BaseBuilder valueBuilder, String name) {
+		setPrevLevel(valueBuilder);
+		this.currentName = name;
+		return this;
+	}
+
+	@Override
+	void release() {
+		currentName = null;
+	}
+
 	@Override
 	public void setCurrentLevelElement(JsonElement e) {
 		((JsonObject) prevLevel.getCurrentLevelElement()).add(currentName, e);
@@ -23,12 +42,12 @@ class ObjectPropertyBuilder extends BaseBuilder {
 
 	@Override
 	public ObjectBuilder object() {
-		return new ObjectBuilder(this);
+		return level.owner.objectBuilder(this);
 	}
 
 	@Override
 	public ArrayBuilder array() {
-		return new ArrayBuilder(this);
+		return level.owner.arrayBuilder(this);
 	}
 
 	@Override
@@ -63,13 +82,13 @@ class ObjectPropertyBuilder extends BaseBuilder {
 
 	@Override
 	public ValueBuilder object(IObjectBuilder builder) {
-		builder.build(new ObjectFacade(this));
+		builder.build(level.owner.objectFacade(this, null));
 		return prevLevel;
 	}
 
 	@Override
 	public ValueBuilder array(IArrayBuilder builder) {
-		builder.build(new ArrayFacade(this));
+		builder.build(level.owner.arrayFacade(this, null));
 		return prevLevel;
 	}
 
@@ -84,6 +103,26 @@ class ObjectPropertyBuilder extends BaseBuilder {
 		throw new IllegalStateException();
 	}
 
+	@Override
+	public String toJson(JsonFormat format) {
+		throw new IllegalStateException();
+	}
+
+	@Override
+	public void toJson(OutputStream out, JsonFormat format) {
+		throw new IllegalStateException();
+	}
+
+	@Override
+	public void toJson(WritableByteChannel out, JsonFormat format) {
+		throw new IllegalStateException();
+	}
+
+	@Override
+	public void toJson(ByteBuffer out, JsonFormat format) {
+		throw new IllegalStateException();
+	}
+
 	@Override
 	public JsonElement toJsonTree() {
 		throw new IllegalStateException();
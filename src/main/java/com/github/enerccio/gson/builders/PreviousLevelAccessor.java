@@ -4,10 +4,35 @@ import com.google.gson.JsonElement;
 
 abstract class PreviousLevelAccessor {
 
-	protected PreviousLevelAccessor prevLevelAccessor;
+	/**
+	 * nesting level of reused builder, other builders share level of the root
+	 * builder and only use its owner
+	 */
+	protected JsonBuilder.Level level;
 
 	PreviousLevelAccessor(PreviousLevelAccessor prevLevelAccessor) {
-		this.prevLevelAccessor = prevLevelAccessor;
+		setPrevLevelAccessor(prevLevelAccessor);
+	}
+
+	/**
+	 * Attaches this level under previous level
+	 * 
+	 * @param prevLevelAccessor
+	 * @since 1.2.0
+	 */
+	void setPrevLevelAccessor(PreviousLevelAccessor prevLevelAccessor) {
+		if (prevLevelAccessor != null)
+			level = prevLevelAccessor.level;
+	}
+
+	/**
+	 * Releases elements referenced by this level, so reused level builders
+	 * do not keep finished json alive.
+	 * 
+	 * @since 1.2.0
+	 */
+	void release() {
+
 	}
 
 	/**
@@ -0,0 +1,616 @@
+package com.github.enerccio.gson.builders;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+import com.github.enerccio.gson.JsonFormat;
+import com.github.enerccio.gson.Utf8Writer;
+import com.github.enerccio.gson.builders.functional.IArrayBuilder;
+import com.github.enerccio.gson.builders.functional.IArrayFacade;
+import com.github.enerccio.gson.builders.functional.IObjectBuilder;
+import com.github.enerccio.gson.builders.functional.IObjectFacade;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Builder writing JSON straight into {@link JsonWriter} as builder methods
+ * are called.
+ * <p>
+ * Unlike {@link JsonBuilder}, no {@link JsonElement} tree is built, so memory
+ * used does not depend on size of the generated JSON. Same fluent and
+ * functional API is supported, but every method returns this builder and
+ * elements can't be changed once written. {@link #toJsonTree()} is therefore
+ * not supported and {@link #toJson()} is only supported when builder writes
+ * into its own buffer (see {@link #StreamingJsonBuilder()}).
+ * <p>
+ * Output format is {@link JsonFormat#COMPACT} unless other format is
+ * requested. Use {@link #StreamingJsonBuilder(JsonWriter)} to configure output
+ * completely.
+ * <p>
+ * I/O errors are rethrown as {@link JsonIOException}. This builder is NOT
+ * thread safe!
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+public class StreamingJsonBuilder implements ValueBuilder, IObjectFacade, IArrayFacade, Closeable, Flushable {
+
+	/**
+	 * writes elements as they are, using settings of the writer
+	 */
+	private static final TypeAdapter<JsonElement> ELEMENT_ADAPTER = JsonFormat.COMPACT.getGson().getAdapter(
+			JsonElement.class);
+
+	private final JsonWriter writer;
+	/**
+	 * format of the writer, null if writer was provided
+	 */
+	private final JsonFormat format;
+	/**
+	 * buffer when writing into own buffer, null otherwise
+	 */
+	private final StringWriter buffer;
+
+	/**
+	 * open containers, true for object
+	 */
+	private boolean[] scopes = new boolean[16];
+	private int depth = 0;
+	private boolean rootWritten = false;
+
+	/**
+	 * Creates builder writing into its own buffer, result is available via
+	 * {@link #toJson()}
+	 *
+	 * @since 1.2.0
+	 */
+	public StreamingJsonBuilder() {
+		this(JsonFormat.COMPACT);
+	}
+
+	/**
+	 * Creates builder writing into its own buffer in requested format, result
+	 * is available via {@link #toJson()}
+	 *
+	 * @param format
+	 *            output format
+	 * @since 1.2.0
+	 */
+	public StreamingJsonBuilder(JsonFormat format) {
+		this.buffer = new StringWriter();
+		this.format = format;
+		this.writer = format.newJsonWriter(buffer);
+	}
+
+	/**
+	 * Creates builder writing into provided writer
+	 *
+	 * @param out
+	 *            writer to write to
+	 * @since 1.2.0
+	 */
+	public StreamingJsonBuilder(Writer out) {
+		this(out, JsonFormat.COMPACT);
+	}
+
+	/**
+	 * Creates builder writing into provided writer in requested format
+	 *
+	 * @param out
+	 *            writer to write to
+	 * @param format
+	 *            output format
+	 * @since 1.2.0
+	 */
+	public StreamingJsonBuilder(Writer out, JsonFormat format) {
+		if (out == null)
+			throw new NullPointerException("writer can't be null");
+		this.buffer = null;
+		this.format = format;
+		this.writer = format.newJsonWriter(out);
+	}
+
+	/**
+	 * Creates builder writing UTF-8 encoded JSON into provided stream
+	 *
+	 * @param out
+	 *            stream to write to
+	 * @since 1.2.0
+	 */
+	public StreamingJsonBuilder(OutputStream out) {
+		this(new Utf8Writer(out));
+	}
+
+	/**
+	 * Creates builder writing UTF-8 encoded JSON into provided stream in
+	 * requested format
+	 *
+	 * @param out
+	 *            stream to write to
+	 * @param format
+	 *            output format
+	 * @since 1.2.0
+	 */
+	public StreamingJsonBuilder(OutputStream out, JsonFormat format) {
+		this(new Utf8Writer(out), format);
+	}
+
+	/**
+	 * Creates builder writing UTF-8 encoded JSON into provided channel
+	 *
+	 * @param out
+	 *            channel to write to
+	 * @since 1.2.0
+	 */
+	public StreamingJsonBuilder(WritableByteChannel out) {
+		this(new Utf8Writer(out));
+	}
+
+	/**
+	 * Creates builder writing UTF-8 encoded JSON into provided channel in
+	 * requested format
+	 *
+	 * @param out
+	 *            channel to write to
+	 * @param format
+	 *            output format
+	 * @since 1.2.0
+	 */
+	public StreamingJsonBuilder(WritableByteChannel out, JsonFormat format) {
+		this(new Utf8Writer(out), format);
+	}
+
+	/**
+	 * Creates builder writing UTF-8 encoded JSON into provided buffer. Bytes
+	 * are buffered, they are in the buffer after {@link #flush()} or
+	 * {@link #close()}.
+	 *
+	 * @param out
+	 *            buffer to write to
+	 * @since 1.2.0
+	 */
+	public StreamingJsonBuilder(ByteBuffer out) {
+		this(new Utf8Writer(out));
+	}
+
+	/**
+	 * Creates builder writing UTF-8 encoded JSON into provided buffer in
+	 * requested format. Bytes are buffered, they are in the buffer after
+	 * {@link #flush()} or {@link #close()}.
+	 *
+	 * @param out
+	 *            buffer to write to
+	 * @param format
+	 *            output format
+	 * @since 1.2.0
+	 */
+	public StreamingJsonBuilder(ByteBuffer out, JsonFormat format) {
+		this(new Utf8Writer(out), format);
+	}
+
+	/**
+	 * Creates builder writing into provided json writer. Writer settings, ie
+	 * indentation or nulls serialization, are used as they are.
+	 *
+	 * @param writer
+	 *            json writer to write to
+	 * @since 1.2.0
+	 */
+	public StreamingJsonBuilder(JsonWriter writer) {
+		if (writer == null)
+			throw new NullPointerException("writer can't be null");
+		this.buffer = null;
+		this.format = null;
+		this.writer = writer;
+	}
+
+	private void beforeValue() {
+		if (depth == 0) {
+			if (rootWritten)
+				throw new IllegalStateException("root element was already written");
+			rootWritten = true;
+		}
+	}
+
+	private void push(boolean object) {
+		if (depth == scopes.length)
+			scopes = Arrays.copyOf(scopes, depth * 2);
+		scopes[depth++] = object;
+	}
+
+	void checkScope(boolean object) {
+		if (depth == 0 || scopes[depth - 1] != object)
+			throw new IllegalStateException(object ? "not in object" : "not in array");
+	}
+
+	/**
+	 * Own buffer or null when writing into provided writer
+	 */
+	StringWriter getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Format of the output or null when json writer was provided
+	 */
+	JsonFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Whether whole root element was written
+	 *
+	 * @return true if JSON is complete
+	 * @since 1.2.0
+	 */
+	public boolean isComplete() {
+		return rootWritten && depth == 0;
+	}
+
+	@Override
+	public ValueBuilder end() {
+		if (depth == 0)
+			throw new IllegalStateException();
+		try {
+			if (scopes[--depth])
+				writer.endObject();
+			else
+				writer.endArray();
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+		return this;
+	}
+
+	@Override
+	public ValueBuilder object() {
+		beforeValue();
+		try {
+			writer.beginObject();
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+		push(true);
+		return this;
+	}
+
+	@Override
+	public ValueBuilder array() {
+		beforeValue();
+		try {
+			writer.beginArray();
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+		push(false);
+		return this;
+	}
+
+	@Override
+	public ValueBuilder property(String name) {
+		checkScope(true);
+		try {
+			writer.name(name);
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+		return this;
+	}
+
+	@Override
+	public ValueBuilder string(String value) {
+		beforeValue();
+		try {
+			writer.value(value);
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+		return this;
+	}
+
+	@Override
+	public ValueBuilder number(Number value) {
+		beforeValue();
+		try {
+			writer.value(value);
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+		return this;
+	}
+
+	@Override
+	public ValueBuilder bool(Boolean value) {
+		beforeValue();
+		try {
+			if (value == null)
+				writer.nullValue();
+			else
+				writer.value(value.booleanValue());
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+		return this;
+	}
+
+	@Override
+	public ValueBuilder character(Character value) {
+		return string(value == null ? null : value.toString());
+	}
+
+	@Override
+	public ValueBuilder nil() {
+		beforeValue();
+		try {
+			writer.nullValue();
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Completes the generation and returns generated json.
+	 *
+	 * @return generated json
+	 * @throws IllegalStateException
+	 *             when json is not complete
+	 * @throws UnsupportedOperationException
+	 *             when builder writes into provided writer
+	 */
+	@Override
+	public String toJson() {
+		if (buffer == null)
+			throw new UnsupportedOperationException("json was written into provided writer");
+		if (!isComplete())
+			throw new IllegalStateException("json is not complete");
+		flush();
+		return buffer.toString();
+	}
+
+	/**
+	 * Same as {@link #toJson()}, format can't be changed once json is written.
+	 *
+	 * @throws IllegalStateException
+	 *             when json is not complete or requested format differs from
+	 *             format of this builder
+	 * @throws UnsupportedOperationException
+	 *             when builder writes into provided writer
+	 */
+	@Override
+	public String toJson(JsonFormat format) {
+		if (buffer != null && format != this.format)
+			throw new IllegalStateException("json was written as " + this.format);
+		return toJson();
+	}
+
+	/**
+	 * Writes json from own buffer into the stream, see
+	 * {@link #toJson(JsonFormat)}
+	 */
+	@Override
+	public void toJson(OutputStream out, JsonFormat format) {
+		write(new Utf8Writer(out), format);
+	}
+
+	/**
+	 * Writes json from own buffer into the channel, see
+	 * {@link #toJson(JsonFormat)}
+	 */
+	@Override
+	public void toJson(WritableByteChannel out, JsonFormat format) {
+		write(new Utf8Writer(out), format);
+	}
+
+	/**
+	 * Writes json from own buffer into the byte buffer, see
+	 * {@link #toJson(JsonFormat)}
+	 */
+	@Override
+	public void toJson(ByteBuffer out, JsonFormat format) {
+		write(new Utf8Writer(out), format);
+	}
+
+	private void write(Utf8Writer out, JsonFormat format) {
+		String json = toJson(format);
+		try {
+			out.write(json);
+			out.flush();
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+	}
+
+	/**
+	 * Not supported, streaming builder does not build json tree.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             always
+	 */
+	@Override
+	public JsonElement toJsonTree() {
+		throw new UnsupportedOperationException("streaming builder does not build json tree");
+	}
+
+	@Override
+	public ValueBuilder object(IObjectBuilder builder) {
+		object();
+		builder.build(this);
+		return end();
+	}
+
+	@Override
+	public ValueBuilder array(IArrayBuilder builder) {
+		array();
+		builder.build(this);
+		return end();
+	}
+
+	@Override
+	public ValueBuilder element(JsonElement element) {
+		beforeValue();
+		try {
+			ELEMENT_ADAPTER.write(writer, element);
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+		return this;
+	}
+
+	@Override
+	public ValueBuilder string(String property, String value) {
+		return property(property).string(value);
+	}
+
+	@Override
+	public ValueBuilder number(String property, Number value) {
+		return property(property).number(value);
+	}
+
+	@Override
+	public ValueBuilder bool(String property, Boolean value) {
+		return property(property).bool(value);
+	}
+
+	@Override
+	public ValueBuilder character(String property, Character value) {
+		return property(property).character(value);
+	}
+
+	@Override
+	public ValueBuilder nil(String property) {
+		return property(property).nil();
+	}
+
+	@Override
+	public ValueBuilder element(String property, JsonElement element) {
+		return property(property).element(element);
+	}
+
+	@Override
+	public ValueBuilder object(String property, IObjectBuilder builder) {
+		return property(property).object(builder);
+	}
+
+	@Override
+	public ValueBuilder array(String property, IArrayBuilder builder) {
+		return property(property).array(builder);
+	}
+
+	// IObjectFacade, used by functional builders
+
+	@Override
+	public void put(String property, String string) {
+		string(property, string);
+	}
+
+	@Override
+	public void put(String property, Number number) {
+		number(property, number);
+	}
+
+	@Override
+	public void put(String property, Boolean bool) {
+		bool(property, bool);
+	}
+
+	@Override
+	public void putNil(String property) {
+		nil(property);
+	}
+
+	@Override
+	public void putArray(String property, IArrayBuilder arrayBuilder) {
+		array(property, arrayBuilder);
+	}
+
+	@Override
+	public void putObject(String property, IObjectBuilder objectBuilder) {
+		object(property, objectBuilder);
+	}
+
+	@Override
+	public void put(String property, JsonElement element) {
+		element(property, element);
+	}
+
+	// IArrayFacade, used by functional builders
+
+	@Override
+	public void add(String string) {
+		checkScope(false);
+		string(string);
+	}
+
+	@Override
+	public void add(Number number) {
+		checkScope(false);
+		number(number);
+	}
+
+	@Override
+	public void add(Boolean bool) {
+		checkScope(false);
+		bool(bool);
+	}
+
+	@Override
+	public void addNil() {
+		checkScope(false);
+		nil();
+	}
+
+	@Override
+	public void addArray(IArrayBuilder arrayBuilder) {
+		checkScope(false);
+		array(arrayBuilder);
+	}
+
+	@Override
+	public void addObject(IObjectBuilder objectBuilder) {
+		checkScope(false);
+		object(objectBuilder);
+	}
+
+	@Override
+	public void add(JsonElement element) {
+		checkScope(false);
+		element(element);
+	}
+
+	/**
+	 * Flushes written json to the underlying writer
+	 *
+	 * @throws JsonIOException
+	 *             when flushing fails
+	 */
+	@Override
+	public void flush() {
+		try {
+			writer.flush();
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+	}
+
+	/**
+	 * Flushes and closes underlying writer
+	 *
+	 * @throws IOException
+	 *             when closing fails or json is not complete
+	 */
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+}
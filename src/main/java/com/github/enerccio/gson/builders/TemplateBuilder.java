@@ -0,0 +1,308 @@
+package com.github.enerccio.gson.builders;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.enerccio.gson.JsonFormat;
+import com.github.enerccio.gson.builders.functional.IArrayBuilder;
+import com.github.enerccio.gson.builders.functional.IObjectBuilder;
+import com.google.gson.JsonElement;
+
+/**
+ * Builder describing shape of a {@link JsonTemplate}.
+ * <p>
+ * Works as {@link StreamingJsonBuilder} writing into its own buffer, but
+ * values that change between renderings are marked as named slots via
+ * {@link #slot(String)}. Once json is complete, {@link #compile()} creates the
+ * template. Template builder does not produce json itself, all toJson methods
+ * throw {@link UnsupportedOperationException}.
+ *
+ * <pre>
+ * JsonTemplate template = new TemplateBuilder()
+ * 		.object()
+ * 			.property("id").slot("id")
+ * 			.property("status").string("ok")
+ * 		.end()
+ * 		.compile();
+ * </pre>
+ *
+ * This builder is NOT thread safe!
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+public class TemplateBuilder extends StreamingJsonBuilder {
+
+	/**
+	 * written in place of every slot, it is left out when template is compiled
+	 */
+	private static final String PLACEHOLDER = "\"\"";
+
+	private final List<Integer> positions = new ArrayList<Integer>();
+	private final List<String> names = new ArrayList<String>();
+
+	/**
+	 * Creates template builder of compact json
+	 *
+	 * @since 1.2.0
+	 */
+	public TemplateBuilder() {
+		this(JsonFormat.COMPACT);
+	}
+
+	/**
+	 * Creates template builder of json in requested format
+	 *
+	 * @param format
+	 *            output format
+	 * @since 1.2.0
+	 */
+	public TemplateBuilder(JsonFormat format) {
+		super(format);
+	}
+
+	/**
+	 * Marks value at current position as named slot. Same name can be used
+	 * for more slots, they are all filled with the same value.
+	 *
+	 * @param name
+	 *            name of the slot
+	 * @return this builder
+	 * @since 1.2.0
+	 */
+	public TemplateBuilder slot(String name) {
+		if (name == null)
+			throw new NullPointerException("slot name can't be null");
+		// let the writer place separators and indentation, empty string is
+		// the placeholder
+		string("");
+		flush();
+		positions.add(getBuffer().getBuffer().length() - PLACEHOLDER.length());
+		names.add(name);
+		return this;
+	}
+
+	/**
+	 * Marks value of the property as named slot, shortcut for
+	 * property(property).slot(name).
+	 *
+	 * @param property
+	 * @param name
+	 *            name of the slot
+	 * @return this builder
+	 * @since 1.2.0
+	 */
+	public TemplateBuilder slot(String property, String name) {
+		property(property);
+		return slot(name);
+	}
+
+	// covariant overrides, so slots can be used in fluent chains
+
+	@Override
+	public TemplateBuilder end() {
+		super.end();
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder object() {
+		super.object();
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder array() {
+		super.array();
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder property(String name) {
+		super.property(name);
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder string(String value) {
+		super.string(value);
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder number(Number value) {
+		super.number(value);
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder bool(Boolean value) {
+		super.bool(value);
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder character(Character value) {
+		super.character(value);
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder nil() {
+		super.nil();
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder element(JsonElement element) {
+		super.element(element);
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder object(IObjectBuilder builder) {
+		super.object(builder);
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder array(IArrayBuilder builder) {
+		super.array(builder);
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder string(String property, String value) {
+		super.string(property, value);
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder number(String property, Number value) {
+		super.number(property, value);
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder bool(String property, Boolean value) {
+		super.bool(property, value);
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder character(String property, Character value) {
+		super.character(property, value);
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder nil(String property) {
+		super.nil(property);
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder element(String property, JsonElement element) {
+		super.element(property, element);
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder object(String property, IObjectBuilder builder) {
+		super.object(property, builder);
+		return this;
+	}
+
+	@Override
+	public TemplateBuilder array(String property, IArrayBuilder builder) {
+		super.array(property, builder);
+		return this;
+	}
+
+	/**
+	 * Not supported, use {@link #compile()}
+	 *
+	 * @throws UnsupportedOperationException
+	 *             always
+	 */
+	@Override
+	public String toJson() {
+		throw unsupported();
+	}
+
+	/**
+	 * Not supported, use {@link #compile()}
+	 *
+	 * @throws UnsupportedOperationException
+	 *             always
+	 */
+	@Override
+	public String toJson(JsonFormat format) {
+		throw unsupported();
+	}
+
+	/**
+	 * Not supported, use {@link #compile()}
+	 *
+	 * @throws UnsupportedOperationException
+	 *             always
+	 */
+	@Override
+	public void toJson(OutputStream out, JsonFormat format) {
+		throw unsupported();
+	}
+
+	/**
+	 * Not supported, use {@link #compile()}
+	 *
+	 * @throws UnsupportedOperationException
+	 *             always
+	 */
+	@Override
+	public void toJson(WritableByteChannel out, JsonFormat format) {
+		throw unsupported();
+	}
+
+	/**
+	 * Not supported, use {@link #compile()}
+	 *
+	 * @throws UnsupportedOperationException
+	 *             always
+	 */
+	@Override
+	public void toJson(ByteBuffer out, JsonFormat format) {
+		throw unsupported();
+	}
+
+	private UnsupportedOperationException unsupported() {
+		return new UnsupportedOperationException("template builder does not produce json, compile it instead");
+	}
+
+	/**
+	 * Compiles described json into template
+	 *
+	 * @return compiled template
+	 * @throws IllegalStateException
+	 *             when json is not complete
+	 * @since 1.2.0
+	 */
+	public JsonTemplate compile() {
+		if (!isComplete())
+			throw new IllegalStateException("json is not complete");
+		flush();
+		String json = getBuffer().toString();
+		String[] fragments = new String[positions.size() + 1];
+		int start = 0;
+		for (int i = 0; i < positions.size(); i++) {
+			int end = positions.get(i);
+			fragments[i] = json.substring(start, end);
+			start = end + PLACEHOLDER.length();
+		}
+		fragments[positions.size()] = json.substring(start);
+		return new JsonTemplate(getFormat(), fragments, names.toArray(new String[names.size()]));
+	}
+
+}
@@ -1,5 +1,10 @@
 package com.github.enerccio.gson.builders;
 
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import com.github.enerccio.gson.JsonFormat;
 import com.github.enerccio.gson.builders.functional.IArrayBuilder;
 import com.github.enerccio.gson.builders.functional.IObjectBuilder;
 import com.google.gson.JsonElement;
@@ -114,6 +119,75 @@ public interface ValueBuilder {
 	 */
 	String toJson();
 
+	/**
+	 * Instantly closes the generation and returns what was build so far in
+	 * requested format.
+	 * 
+	 * @param format
+	 *            output format
+	 * @return generated json
+	 * @throws {@link
+	 *             IllegalStateException} when returning would leave inconsisted
+	 *             state
+	 * @since 1.2.0
+	 */
+	String toJson(JsonFormat format);
+
+	/**
+	 * Instantly closes the generation and writes what was build so far as
+	 * UTF-8 bytes in requested format into the stream. Stream is flushed, but
+	 * not closed.
+	 * 
+	 * @param out
+	 *            stream to write to
+	 * @param format
+	 *            output format
+	 * @throws {@link
+	 *             IllegalStateException} when returning would leave inconsisted
+	 *             state
+	 * @throws {@link
+	 *             com.google.gson.JsonIOException} when writing fails
+	 * @since 1.2.0
+	 */
+	void toJson(OutputStream out, JsonFormat format);
+
+	/**
+	 * Instantly closes the generation and writes what was build so far as
+	 * UTF-8 bytes in requested format into the channel. Channel is not
+	 * closed.
+	 * 
+	 * @param out
+	 *            channel to write to
+	 * @param format
+	 *            output format
+	 * @throws {@link
+	 *             IllegalStateException} when returning would leave inconsisted
+	 *             state
+	 * @throws {@link
+	 *             com.google.gson.JsonIOException} when writing fails
+	 * @since 1.2.0
+	 */
+	void toJson(WritableByteChannel out, JsonFormat format);
+
+	/**
+	 * Instantly closes the generation and writes what was build so far as
+	 * UTF-8 bytes in requested format into the buffer, starting at its
+	 * position.
+	 * 
+	 * @param out
+	 *            buffer to write to
+	 * @param format
+	 *            output format
+	 * @throws {@link
+	 *             IllegalStateException} when returning would leave inconsisted
+	 *             state
+	 * @throws {@link
+	 *             java.nio.BufferOverflowException} when json does not fit
+	 *             into the buffer
+	 * @since 1.2.0
+	 */
+	void toJson(ByteBuffer out, JsonFormat format);
+
 	/**
 	 * Instantly closes the generation and returns what was build so far.
 	 * 
@@ -0,0 +1,29 @@
+package com.github.enerccio.gson.tree;
+
+import java.text.ParseException;
+
+/**
+ * Cache of compiled {@link JsonPatternMatcher}s.
+ * <p>
+ * Implementations must be thread safe, since cache is shared by all callers of
+ * the String pattern methods of {@link com.github.enerccio.gson.JsonHelper}.
+ * 
+ * @author pvan
+ * @since 1.2.0
+ */
+public interface IJsonPatternCache {
+
+	/**
+	 * Returns compiled matcher for this pattern, compiling it if it is not
+	 * cached
+	 * 
+	 * @param pattern
+	 *            pattern to compile
+	 * @return compiled matcher
+	 * @throws ParseException
+	 *             if pattern is malformed
+	 * @since 1.2.0
+	 */
+	public JsonPatternMatcher get(String pattern) throws ParseException;
+
+}
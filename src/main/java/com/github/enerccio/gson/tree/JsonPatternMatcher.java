@@ -4,7 +4,8 @@ import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
@@ -33,13 +34,26 @@ import com.github.enerccio.gson.tree.TreeInfo.TreeInfoType;
  */
 public class JsonPatternMatcher {
 
-	private enum MatchResult {
-		NOT_MATCHED, MATCHED, MATCHED_STAY, MATCHED_MOVE,
-	}
+	static abstract class MatchTreeElement {
 
-	private static abstract class MatchTreeElement {
+		/**
+		 * Whether this element consumes this path element
+		 */
+		public abstract boolean match(TreeInfo info);
 
-		public abstract MatchResult match(TreeInfo info);
+		/**
+		 * Whether this element can also match empty path
+		 */
+		public boolean isWildcard() {
+			return false;
+		}
+
+		/**
+		 * Whether this element can consume any number of path elements
+		 */
+		public boolean isRepeating() {
+			return false;
+		}
 
 		@Override
 		public String toString() {
@@ -48,19 +62,17 @@ public class JsonPatternMatcher {
 
 	}
 
-	private static class MatchIndex extends MatchTreeElement {
+	static class MatchIndex extends MatchTreeElement {
 
-		private final int index;
+		final int index;
 
 		public MatchIndex(int index) {
 			this.index = index;
 		}
 
 		@Override
-		public MatchResult match(TreeInfo info) {
-			if (info.getType() == TreeInfoType.INDEX && info.getIndex() == index)
-				return MatchResult.MATCHED;
-			return MatchResult.NOT_MATCHED;
+		public boolean match(TreeInfo info) {
+			return info.getType() == TreeInfoType.INDEX && info.getIndex() == index;
 		}
 
 		@Override
@@ -69,19 +81,29 @@ public class JsonPatternMatcher {
 		}
 	}
 
-	private static class MatchProperty extends MatchTreeElement {
+	static class MatchProperty extends MatchTreeElement {
 
-		private final String property;
+		final String property;
+		final int hash;
 
 		public MatchProperty(String property) {
-			this.property = property;
+			// visited properties are cached by TreeInfo.of, sharing the
+			// instance allows most matches to be decided by identity as long
+			// as the property stays cached, hash and equals decide otherwise
+			this.property = TreeInfo.of(property).getProperty();
+			this.hash = property.hashCode();
 		}
 
 		@Override
-		public MatchResult match(TreeInfo info) {
-			if (info.getType() == TreeInfoType.PROPERTY && property.equals(info.getProperty()))
-				return MatchResult.MATCHED;
-			return MatchResult.NOT_MATCHED;
+		public boolean match(TreeInfo info) {
+			if (info.getType() != TreeInfoType.PROPERTY)
+				return false;
+			String other = info.getProperty();
+			if (property == other)
+				return true;
+			// precomputed hashes reject almost all different properties
+			// without comparing characters
+			return hash == info.getPropertyHash() && property.equals(other);
 		}
 
 		@Override
@@ -91,38 +113,35 @@ public class JsonPatternMatcher {
 
 	}
 
-	private static abstract class MatchMultiMatch extends MatchTreeElement {
+	static class MatchTreeAny extends MatchTreeElement {
 
-		protected MatchTreeElement terminalMatch;
-
-		public void setTerminal(MatchTreeElement terminalMatch) {
-			this.terminalMatch = terminalMatch;
+		@Override
+		public boolean match(TreeInfo info) {
+			return true;
 		}
 
-	}
-
-	private static class MatchTreeAny extends MatchMultiMatch {
+		@Override
+		public boolean isWildcard() {
+			return true;
+		}
 
 		@Override
-		public MatchResult match(TreeInfo info) {
-			if (terminalMatch != null) {
-				if (terminalMatch.match(info) == MatchResult.MATCHED)
-					return MatchResult.MATCHED_MOVE;
-			}
-			return MatchResult.MATCHED_STAY;
+		public boolean isRepeating() {
+			return true;
 		}
 
 	}
 
-	private static class MatchAny extends MatchMultiMatch {
+	static class MatchAny extends MatchTreeElement {
 
 		@Override
-		public MatchResult match(TreeInfo info) {
-			if (terminalMatch != null) {
-				if (terminalMatch.match(info) == MatchResult.MATCHED)
-					return MatchResult.MATCHED_MOVE;
-			}
-			return MatchResult.MATCHED;
+		public boolean match(TreeInfo info) {
+			return true;
+		}
+
+		@Override
+		public boolean isWildcard() {
+			return true;
 		}
 
 	}
@@ -145,7 +164,19 @@ public class JsonPatternMatcher {
 		}
 	}
 
-	private final List<MatchTreeElement> compiledPattern;
+	/*
+	 * Compiled pattern is matched as nondeterministic automaton. State i means
+	 * first i elements of the pattern were matched, state elements.length is
+	 * accepting and once reached, it stays reached for all nested paths. Sets
+	 * of states are stored as bit sets of words longs.
+	 */
+	private final MatchTreeElement[] elements;
+	private final int words;
+	/**
+	 * for each state, set of states reachable from it without consuming path
+	 * element
+	 */
+	private final long[] closures;
 
 	/**
 	 * Compiles this pattern to a matcher
@@ -154,7 +185,17 @@ public class JsonPatternMatcher {
 	 * @throws ParseException
 	 */
 	public JsonPatternMatcher(String pattern) throws ParseException {
-		compiledPattern = compilePattern(pattern);
+		List<MatchTreeElement> compiledPattern = compilePattern(pattern);
+		elements = compiledPattern.toArray(new MatchTreeElement[compiledPattern.size()]);
+		words = (elements.length + 64) >>> 6;
+		closures = new long[(elements.length + 1) * words];
+		for (int i = 0; i <= elements.length; i++) {
+			int s = i;
+			set(closures, i * words, s);
+			while (s < elements.length && elements[s].isWildcard()) {
+				set(closures, i * words, ++s);
+			}
+		}
 	}
 
 	private enum TokenType {
@@ -194,12 +235,11 @@ public class JsonPatternMatcher {
 	 *             when pattern is invalid
 	 * @since 1.1.0
 	 */
-	private List<MatchTreeElement> compilePattern(String pattern) throws ParseException {
+	static List<MatchTreeElement> compilePattern(String pattern) throws ParseException {
 		List<MatchTreeElement> cp = new ArrayList<MatchTreeElement>();
 
 		List<Token> tokens = tokenize(pattern);
 		Set<TokenType> expectedToken = typeSet(TokenType.WILDCARD, TokenType.VALUE, TokenType.AT);
-		List<MatchMultiMatch> awaitingTerminal = new ArrayList<MatchMultiMatch>();
 
 		boolean buildingNumber = false;
 		boolean buildingWildcard = false;
@@ -218,9 +258,7 @@ public class JsonPatternMatcher {
 			case DOT:
 				if (buildingWildcard) {
 					buildingWildcard = false;
-					MatchAny any = new MatchAny();
-					awaitingTerminal.add(any);
-					cp.add(any);
+					cp.add(new MatchAny());
 				}
 				expectedToken = typeSet(TokenType.WILDCARD, TokenType.VALUE, TokenType.AT);
 				break;
@@ -237,18 +275,12 @@ public class JsonPatternMatcher {
 				}
 				buildingNumber = false;
 				expectedToken = typeSet(TokenType.DOT);
-				for (MatchMultiMatch matchAny : awaitingTerminal) {
-					matchAny.setTerminal(terminal);
-				}
-				awaitingTerminal.clear();
 				cp.add(terminal);
 				break;
 			case WILDCARD:
 				if (buildingWildcard) {
 					buildingWildcard = false;
-					MatchTreeAny treeAny = new MatchTreeAny();
-					cp.add(treeAny);
-					awaitingTerminal.add(treeAny);
+					cp.add(new MatchTreeAny());
 					expectedToken = typeSet(TokenType.DOT);
 				} else {
 					buildingWildcard = true;
@@ -263,7 +295,7 @@ public class JsonPatternMatcher {
 		List<MatchTreeElement> wildcards = new ArrayList<MatchTreeElement>();
 
 		for (MatchTreeElement e : cp) {
-			if ((e instanceof MatchTreeAny) || (e instanceof MatchAny)) {
+			if (e.isWildcard()) {
 				wildcards.add(e);
 			} else {
 				filtered.addAll(wildcards);
@@ -276,14 +308,16 @@ public class JsonPatternMatcher {
 	}
 
 	private static Set<TokenType> typeSet(TokenType... tokenTypes) {
-		return new HashSet<TokenType>(Arrays.asList(tokenTypes));
+		EnumSet<TokenType> set = EnumSet.noneOf(TokenType.class);
+		Collections.addAll(set, tokenTypes);
+		return set;
 	}
 
-	private List<Token> tokenize(String pattern) throws ParseException {
+	private static List<Token> tokenize(String pattern) throws ParseException {
 		List<Token> tokenList = new ArrayList<Token>();
 
 		boolean escape = false;
-		StringBuffer cStringBuffer = new StringBuffer();
+		StringBuilder cStringBuffer = new StringBuilder();
 		int valueTokenStartPos = 0;
 
 		for (int i = 0; i < pattern.length(); i++) {
@@ -307,7 +341,7 @@ public class JsonPatternMatcher {
 				if (cStringBuffer.length() != 0) {
 					String tokenValue = cStringBuffer.toString();
 					tokenList.add(new Token(TokenType.VALUE, tokenValue, valueTokenStartPos));
-					cStringBuffer = new StringBuffer();
+					cStringBuffer.setLength(0);
 					valueTokenStartPos = i + 1;
 				}
 				tokenList.add(finalizedToken);
@@ -333,27 +367,219 @@ public class JsonPatternMatcher {
 	 * @since 1.1.0
 	 */
 	public boolean matches(Collection<TreeInfo> path) {
-		int matchPos = 0;
+		MatchState state = newMatchState();
 		for (TreeInfo nfo : path) {
-			if (matchPos >= compiledPattern.size()) {
-				return true; // no more tests == matches
-			}
-			MatchTreeElement e = compiledPattern.get(matchPos);
+			state.push(nfo);
+		}
+		return state.matches();
+	}
 
-			switch (e.match(nfo)) {
-			case MATCHED_MOVE:
-				++matchPos;
-			case MATCHED:
-				++matchPos;
-				break;
-			case MATCHED_STAY:
-				break;
-			case NOT_MATCHED:
+	/**
+	 * Checks whether this path or any path nested under it can still match
+	 * this matcher.
+	 * <p>
+	 * When this returns false, whole subtree of the element with this path can
+	 * be skipped since nothing in it will match.
+	 * <p>
+	 * This method is thread safe.
+	 * 
+	 * @param path
+	 *            list of {@link TreeInfo} path elements
+	 * @return false if neither this path nor any of its descendants can match
+	 * @since 1.2.0
+	 */
+	public boolean canMatchSubtree(Collection<TreeInfo> path) {
+		MatchState state = newMatchState();
+		for (TreeInfo nfo : path) {
+			state.push(nfo);
+			if (!state.canMatchSubtree())
 				return false;
-			default:
-				break;
+		}
+		return true;
+	}
+
+	/**
+	 * Creates new incremental matching state for this matcher.
+	 * <p>
+	 * Matching state follows path as it is entered and exited via
+	 * {@link MatchState#push(TreeInfo)} and {@link MatchState#pop()} and
+	 * answers whether current path matches in constant time.
+	 * 
+	 * @return new matching state at empty path
+	 * @since 1.2.0
+	 */
+	public MatchState newMatchState() {
+		return new MatchState();
+	}
+
+	private static void set(long[] set, int offset, int bit) {
+		set[offset + (bit >>> 6)] |= 1L << bit;
+	}
+
+	private static boolean isSet(long[] set, int offset, int bit) {
+		return (set[offset + (bit >>> 6)] & (1L << bit)) != 0;
+	}
+
+	/**
+	 * Incremental matching state of the {@link JsonPatternMatcher}.
+	 * <p>
+	 * Keeps set of active pattern positions for each depth of current path, so
+	 * entering path element only computes new set from the parent's one. This
+	 * class is NOT thread safe, create one state per visit.
+	 * 
+	 * @author pvan
+	 * @since 1.2.0
+	 */
+	public class MatchState {
+
+		private long[] states = new long[16 * words];
+		private TreeInfo[] path = new TreeInfo[16];
+		private int depth = 0;
+
+		private MatchState() {
+			System.arraycopy(closures, 0, states, 0, words);
+		}
+
+		/**
+		 * Creates independent copy of this state at the same path
+		 * 
+		 * @return copy of this state
+		 * @since 1.2.0
+		 */
+		public MatchState copy() {
+			MatchState copy = new MatchState();
+			copy.states = Arrays.copyOf(states, states.length);
+			copy.path = Arrays.copyOf(path, path.length);
+			copy.depth = depth;
+			return copy;
+		}
+
+		/**
+		 * Enters this path element.
+		 * 
+		 * @param info
+		 *            path element to enter
+		 * @since 1.2.0
+		 */
+		public void push(TreeInfo info) {
+			if ((depth + 2) * words > states.length) {
+				states = Arrays.copyOf(states, states.length * 2);
+				path = Arrays.copyOf(path, path.length * 2);
+			}
+			int from = depth * words;
+			int to = from + words;
+			Arrays.fill(states, to, to + words, 0);
+			for (int w = 0; w < words; w++) {
+				long active = states[from + w];
+				while (active != 0) {
+					int s = (w << 6) + Long.numberOfTrailingZeros(active);
+					active &= active - 1;
+					int next;
+					if (s == elements.length) {
+						next = s;
+					} else if (elements[s].isRepeating()) {
+						next = s;
+					} else if (elements[s].match(info)) {
+						next = s + 1;
+					} else {
+						continue;
+					}
+					for (int cw = 0; cw < words; cw++) {
+						states[to + cw] |= closures[next * words + cw];
+					}
+				}
+			}
+			path[depth++] = info;
+		}
+
+		/**
+		 * Exits last entered path element
+		 * 
+		 * @throws IllegalStateException
+		 *             when at empty path
+		 * @since 1.2.0
+		 */
+		public void pop() {
+			if (depth == 0)
+				throw new IllegalStateException("empty path");
+			path[--depth] = null;
+		}
+
+		/**
+		 * Moves this state to the element with given depth and last path element.
+		 * <p>
+		 * Deeper path elements are popped and if last path element differs from
+		 * the one at this depth (such as when moving to sibling), it is replaced.
+		 * Useful for following visitor callbacks.
+		 * 
+		 * @param depth
+		 *            length of the path of the element
+		 * @param last
+		 *            last element of the path or null if depth is 0
+		 * @throws IllegalStateException
+		 *             when depth is deeper than one level under current path
+		 * @since 1.2.0
+		 */
+		public void sync(int depth, TreeInfo last) {
+			if (depth > this.depth + 1)
+				throw new IllegalStateException("path skipped a level");
+			while (this.depth > depth) {
+				pop();
+			}
+			if (depth == 0)
+				return;
+			if (this.depth == depth) {
+				if (path[depth - 1] == last)
+					return;
+				pop();
+			}
+			push(last);
+		}
+
+		/**
+		 * Returns current depth of the path
+		 * 
+		 * @return number of entered path elements
+		 * @since 1.2.0
+		 */
+		public int getDepth() {
+			return depth;
+		}
+
+		/**
+		 * Whether current path matches the matcher
+		 * 
+		 * @return true if current path matches
+		 * @since 1.2.0
+		 */
+		public boolean matches() {
+			return isSet(states, depth * words, elements.length);
+		}
+
+		/**
+		 * Whether current path or any path nested under it can match the matcher
+		 * 
+		 * @return false if nothing under current path can match
+		 * @since 1.2.0
+		 */
+		public boolean canMatchSubtree() {
+			int offset = depth * words;
+			for (int w = 0; w < words; w++) {
+				if (states[offset + w] != 0)
+					return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Resets state to empty path
+		 * 
+		 * @since 1.2.0
+		 */
+		public void reset() {
+			while (depth > 0) {
+				pop();
 			}
 		}
-		return matchPos >= compiledPattern.size();
 	}
 }
@@ -0,0 +1,424 @@
+package com.github.enerccio.gson.tree;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.enerccio.gson.tree.JsonPatternMatcher.MatchAny;
+import com.github.enerccio.gson.tree.JsonPatternMatcher.MatchIndex;
+import com.github.enerccio.gson.tree.JsonPatternMatcher.MatchProperty;
+import com.github.enerccio.gson.tree.JsonPatternMatcher.MatchTreeElement;
+import com.github.enerccio.gson.tree.JsonPatternMatcher.MatchTreeAny;
+
+/**
+ * Set of patterns matched together in a single pass. This class is thread
+ * safe. </br>
+ * </br>
+ * Patterns use the same syntax as {@link JsonPatternMatcher} and are merged
+ * into a trie, so shared prefixes are only matched once and matching cost of
+ * a path element depends on number of patterns that are still active, not on
+ * number of patterns in the set. Each pattern is identified by its position in
+ * the set (pattern id).
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+public class JsonPatternSet {
+
+	private static class Node {
+
+		private final int id;
+		/**
+		 * whether this node was reached via ** and can consume more elements
+		 */
+		private boolean repeating;
+		private Map<String, Node> properties;
+		private Map<Integer, Node> indexes;
+		private Node any;
+		private Node treeAny;
+		private int[] patterns = new int[0];
+		/**
+		 * this node and all nodes reachable without consuming path element
+		 */
+		private int[] closure;
+
+		public Node(int id) {
+			this.id = id;
+		}
+
+		public Node child(MatchTreeElement element, List<Node> nodes) {
+			if (element instanceof MatchProperty) {
+				if (properties == null)
+					properties = new HashMap<String, Node>();
+				String property = ((MatchProperty) element).property;
+				Node child = properties.get(property);
+				if (child == null)
+					properties.put(property, child = newNode(nodes));
+				return child;
+			} else if (element instanceof MatchIndex) {
+				if (indexes == null)
+					indexes = new HashMap<Integer, Node>();
+				Integer index = ((MatchIndex) element).index;
+				Node child = indexes.get(index);
+				if (child == null)
+					indexes.put(index, child = newNode(nodes));
+				return child;
+			} else if (element instanceof MatchAny) {
+				if (any == null)
+					any = newNode(nodes);
+				return any;
+			} else if (element instanceof MatchTreeAny) {
+				if (treeAny == null) {
+					treeAny = newNode(nodes);
+					treeAny.repeating = true;
+				}
+				return treeAny;
+			}
+			throw new IllegalArgumentException("unknown pattern element " + element);
+		}
+
+		private static Node newNode(List<Node> nodes) {
+			Node node = new Node(nodes.size());
+			nodes.add(node);
+			return node;
+		}
+
+	}
+
+	private final List<String> patterns;
+	private final Node[] nodes;
+
+	/**
+	 * Compiles patterns into a pattern set
+	 *
+	 * @param patterns
+	 *            patterns, pattern id is index of the pattern
+	 * @throws ParseException
+	 *             if any pattern is malformed
+	 * @since 1.2.0
+	 */
+	public JsonPatternSet(String... patterns) throws ParseException {
+		this(Arrays.asList(patterns));
+	}
+
+	/**
+	 * Compiles patterns into a pattern set
+	 *
+	 * @param patterns
+	 *            patterns, pattern id is index of the pattern in the list
+	 * @throws ParseException
+	 *             if any pattern is malformed
+	 * @since 1.2.0
+	 */
+	public JsonPatternSet(List<String> patterns) throws ParseException {
+		this.patterns = Collections.unmodifiableList(new ArrayList<String>(patterns));
+
+		List<Node> nodeList = new ArrayList<Node>();
+		Node root = Node.newNode(nodeList);
+		for (int id = 0; id < this.patterns.size(); id++) {
+			Node node = root;
+			for (MatchTreeElement element : JsonPatternMatcher.compilePattern(this.patterns.get(id))) {
+				node = node.child(element, nodeList);
+			}
+			node.patterns = Arrays.copyOf(node.patterns, node.patterns.length + 1);
+			node.patterns[node.patterns.length - 1] = id;
+		}
+		nodes = nodeList.toArray(new Node[nodeList.size()]);
+
+		// children are always created after their parents so closures can be
+		// built from the last node
+		for (int i = nodes.length - 1; i >= 0; i--) {
+			Node node = nodes[i];
+			List<Integer> closure = new ArrayList<Integer>();
+			closure.add(node.id);
+			for (Node wildcard : new Node[] { node.any, node.treeAny }) {
+				if (wildcard != null) {
+					for (int c : wildcard.closure)
+						closure.add(c);
+				}
+			}
+			node.closure = new int[closure.size()];
+			for (int c = 0; c < node.closure.length; c++)
+				node.closure[c] = closure.get(c);
+		}
+	}
+
+	/**
+	 * Number of patterns in this set
+	 *
+	 * @return number of patterns
+	 * @since 1.2.0
+	 */
+	public int size() {
+		return patterns.size();
+	}
+
+	/**
+	 * Returns pattern with this pattern id
+	 *
+	 * @param patternId
+	 * @return pattern
+	 * @since 1.2.0
+	 */
+	public String getPattern(int patternId) {
+		return patterns.get(patternId);
+	}
+
+	/**
+	 * Returns ids of all patterns matching this path.
+	 * <p>
+	 * This method is thread safe.
+	 *
+	 * @param path
+	 *            list of {@link TreeInfo} path elements
+	 * @return ids of matching patterns
+	 * @since 1.2.0
+	 */
+	public int[] matches(Collection<TreeInfo> path) {
+		MatchState state = newMatchState();
+		for (TreeInfo nfo : path) {
+			state.push(nfo);
+		}
+		int[] matches = new int[state.getMatchCount()];
+		for (int i = 0; i < matches.length; i++) {
+			matches[i] = state.getMatch(i);
+		}
+		return matches;
+	}
+
+	/**
+	 * Creates new incremental matching state for this pattern set.
+	 *
+	 * @return new matching state at empty path
+	 * @since 1.2.0
+	 */
+	public MatchState newMatchState() {
+		return new MatchState();
+	}
+
+	/**
+	 * Incremental matching state of the {@link JsonPatternSet}.
+	 * <p>
+	 * Same as {@link JsonPatternMatcher.MatchState}, but tracks all patterns of
+	 * the set at once. This class is NOT thread safe, create one state per
+	 * visit.
+	 *
+	 * @author pvan
+	 * @since 1.2.0
+	 */
+	public class MatchState {
+
+		private TreeInfo[] path = new TreeInfo[16];
+		private int depth = 0;
+
+		// active trie nodes, nodes of depth d are at activeEnd[d - 1] until
+		// activeEnd[d]
+		private int[] active = new int[16];
+		private int[] activeEnd = new int[17];
+		private final int[] stamp = new int[nodes.length];
+		private int stampCounter = 0;
+
+		// accepted pattern ids, patterns accepted at depth d are at
+		// acceptedEnd[d - 1] until acceptedEnd[d]
+		private int[] accepted = new int[16];
+		private int[] acceptedEnd = new int[17];
+		private final boolean[] isAccepted = new boolean[patterns.size()];
+
+		private MatchState() {
+			++stampCounter;
+			for (int c : nodes[0].closure) {
+				activate(nodes[c], 0);
+			}
+		}
+
+		private void activate(Node node, int depth) {
+			if (stamp[node.id] == stampCounter)
+				return;
+			stamp[node.id] = stampCounter;
+			int end = activeEnd[depth];
+			if (end == active.length)
+				active = Arrays.copyOf(active, end * 2);
+			active[end] = node.id;
+			activeEnd[depth] = end + 1;
+			for (int id : node.patterns) {
+				if (isAccepted[id])
+					continue;
+				isAccepted[id] = true;
+				int aend = acceptedEnd[depth];
+				if (aend == accepted.length)
+					accepted = Arrays.copyOf(accepted, aend * 2);
+				accepted[aend] = id;
+				acceptedEnd[depth] = aend + 1;
+			}
+		}
+
+		private void activateClosure(Node node, int depth) {
+			if (node == null)
+				return;
+			for (int c : node.closure) {
+				activate(nodes[c], depth);
+			}
+		}
+
+		/**
+		 * Enters this path element.
+		 *
+		 * @param info
+		 *            path element to enter
+		 * @since 1.2.0
+		 */
+		public void push(TreeInfo info) {
+			if (depth + 1 == path.length) {
+				path = Arrays.copyOf(path, path.length * 2);
+				activeEnd = Arrays.copyOf(activeEnd, activeEnd.length * 2);
+				acceptedEnd = Arrays.copyOf(acceptedEnd, acceptedEnd.length * 2);
+			}
+			int from = depth == 0 ? 0 : activeEnd[depth - 1];
+			int to = activeEnd[depth];
+			path[depth++] = info;
+			activeEnd[depth] = to;
+			acceptedEnd[depth] = acceptedEnd[depth - 1];
+
+			++stampCounter;
+			for (int i = from; i < to; i++) {
+				Node node = nodes[active[i]];
+				if (node.repeating)
+					activateClosure(node, depth);
+				if (info.getType() == TreeInfo.TreeInfoType.PROPERTY) {
+					if (node.properties != null)
+						activateClosure(node.properties.get(info.getProperty()), depth);
+				} else {
+					if (node.indexes != null)
+						activateClosure(node.indexes.get(info.getIndex()), depth);
+				}
+				activateClosure(node.any, depth);
+				activateClosure(node.treeAny, depth);
+			}
+		}
+
+		/**
+		 * Exits last entered path element
+		 *
+		 * @throws IllegalStateException
+		 *             when at empty path
+		 * @since 1.2.0
+		 */
+		public void pop() {
+			if (depth == 0)
+				throw new IllegalStateException("empty path");
+			for (int i = acceptedEnd[depth - 1]; i < acceptedEnd[depth]; i++) {
+				isAccepted[accepted[i]] = false;
+			}
+			path[--depth] = null;
+		}
+
+		/**
+		 * Moves this state to the element with given depth and last path element.
+		 *
+		 * @param depth
+		 *            length of the path of the element
+		 * @param last
+		 *            last element of the path or null if depth is 0
+		 * @throws IllegalStateException
+		 *             when depth is deeper than one level under current path
+		 * @since 1.2.0
+		 * @see JsonPatternMatcher.MatchState#sync(int, TreeInfo)
+		 */
+		public void sync(int depth, TreeInfo last) {
+			if (depth > this.depth + 1)
+				throw new IllegalStateException("path skipped a level");
+			while (this.depth > depth) {
+				pop();
+			}
+			if (depth == 0)
+				return;
+			if (this.depth == depth) {
+				if (path[depth - 1] == last)
+					return;
+				pop();
+			}
+			push(last);
+		}
+
+		/**
+		 * Returns current depth of the path
+		 *
+		 * @return number of entered path elements
+		 * @since 1.2.0
+		 */
+		public int getDepth() {
+			return depth;
+		}
+
+		/**
+		 * Whether current path matches any pattern of the set
+		 *
+		 * @return true if any pattern matches
+		 * @since 1.2.0
+		 */
+		public boolean matches() {
+			return acceptedEnd[depth] > 0;
+		}
+
+		/**
+		 * Whether current path matches pattern with this id
+		 *
+		 * @param patternId
+		 * @return true if pattern matches
+		 * @since 1.2.0
+		 */
+		public boolean matches(int patternId) {
+			return isAccepted[patternId];
+		}
+
+		/**
+		 * Returns number of patterns matching current path
+		 *
+		 * @return number of matching patterns
+		 * @since 1.2.0
+		 */
+		public int getMatchCount() {
+			return acceptedEnd[depth];
+		}
+
+		/**
+		 * Returns id of i-th pattern matching current path
+		 *
+		 * @param i
+		 *            0 to {@link #getMatchCount()} - 1
+		 * @return pattern id
+		 * @since 1.2.0
+		 */
+		public int getMatch(int i) {
+			if (i < 0 || i >= acceptedEnd[depth])
+				throw new IndexOutOfBoundsException("no match " + i);
+			return accepted[i];
+		}
+
+		/**
+		 * Whether current path or any path nested under it can match any pattern
+		 *
+		 * @return false if nothing under current path can match
+		 * @since 1.2.0
+		 */
+		public boolean canMatchSubtree() {
+			return matches() || activeEnd[depth] > (depth == 0 ? 0 : activeEnd[depth - 1]);
+		}
+
+		/**
+		 * Resets state to empty path
+		 *
+		 * @since 1.2.0
+		 */
+		public void reset() {
+			while (depth > 0) {
+				pop();
+			}
+		}
+	}
+}
@@ -0,0 +1,176 @@
+package com.github.enerccio.gson.tree;
+
+import java.text.ParseException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of compiled {@link JsonPatternMatcher}s with approximate least
+ * recently used eviction.
+ * <p>
+ * Lookups of cached matchers do not lock, they only mark the matcher as used.
+ * When cache grows over its size, matchers are evicted by CLOCK (second chance)
+ * algorithm: matchers are scanned in order of the underlying map, used ones are
+ * unmarked and skipped, first one not used since previous scan is evicted.
+ * Eviction is done on the thread inserting a matcher, lookups never wait for
+ * it.
+ * <p>
+ * This class is thread safe. Matchers are compiled without any lock, so
+ * concurrent misses of the same pattern may compile it more than once, only
+ * one of them is cached.
+ * 
+ * @author pvan
+ * @since 1.2.0
+ */
+public class LruJsonPatternCache implements IJsonPatternCache {
+
+	private static class Entry {
+		private final JsonPatternMatcher matcher;
+		/**
+		 * used since it was last scanned by eviction, only written when it
+		 * changes, so hits of hot matchers only read it
+		 */
+		private volatile boolean used = true;
+
+		public Entry(JsonPatternMatcher matcher) {
+			this.matcher = matcher;
+		}
+	}
+
+	private final int maxSize;
+	private final ConcurrentMap<String, Entry> cache = new ConcurrentHashMap<String, Entry>();
+
+	/**
+	 * guards clock, only taken by inserting threads
+	 */
+	private final Object evictionLock = new Object();
+	private Iterator<Map.Entry<String, Entry>> clock;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * Creates cache holding up to maxSize compiled matchers
+	 * 
+	 * @param maxSize
+	 *            maximum number of cached matchers
+	 * @since 1.2.0
+	 */
+	public LruJsonPatternCache(int maxSize) {
+		if (maxSize <= 0)
+			throw new IllegalArgumentException("cache size must be positive");
+		this.maxSize = maxSize;
+	}
+
+	@Override
+	public JsonPatternMatcher get(String pattern) throws ParseException {
+		Entry entry = cache.get(pattern);
+		if (entry != null) {
+			if (!entry.used)
+				entry.used = true;
+			hits.incrementAndGet();
+			return entry.matcher;
+		}
+
+		misses.incrementAndGet();
+		entry = new Entry(new JsonPatternMatcher(pattern));
+		Entry previous = cache.putIfAbsent(pattern, entry);
+		if (previous != null)
+			return previous.matcher;
+		if (cache.size() > maxSize)
+			evict();
+		return entry.matcher;
+	}
+
+	private void evict() {
+		synchronized (evictionLock) {
+			// used flags are set concurrently, after two full scans evict
+			// regardless, so eviction always ends
+			int scans = 0;
+			while (cache.size() > maxSize) {
+				if (clock == null || !clock.hasNext()) {
+					clock = cache.entrySet().iterator();
+					if (!clock.hasNext())
+						return;
+				}
+				Map.Entry<String, Entry> candidate = clock.next();
+				Entry entry = candidate.getValue();
+				if (entry.used && scans++ < 2 * maxSize + 2) {
+					entry.used = false;
+				} else if (cache.remove(candidate.getKey(), entry)) {
+					evictions.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all cached matchers. Counters are not reset.
+	 * 
+	 * @since 1.2.0
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	/**
+	 * Number of currently cached matchers
+	 * 
+	 * @return number of matchers
+	 * @since 1.2.0
+	 */
+	public int size() {
+		return cache.size();
+	}
+
+	/**
+	 * Maximum number of cached matchers
+	 * 
+	 * @return maximum size
+	 * @since 1.2.0
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Number of lookups that found compiled matcher
+	 * 
+	 * @return hit count
+	 * @since 1.2.0
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Number of lookups that had to compile the pattern
+	 * 
+	 * @return miss count
+	 * @since 1.2.0
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Number of matchers removed to keep cache within its size
+	 * 
+	 * @return eviction count
+	 * @since 1.2.0
+	 */
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	@Override
+	public String toString() {
+		return "LruJsonPatternCache [size=" + size() + ", maxSize=" + maxSize + ", hits=" + hits + ", misses=" + misses
+				+ ", evictions=" + evictions + "]";
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.github.enerccio.gson.tree;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.Collection;
 
@@ -19,9 +20,39 @@ public class TreeInfo {
 
 	public static final int NOT_AN_INDEX = -1;
 
+	private static final int INDEX_CACHE_SIZE = 1024;
+	private static final int PROPERTY_CACHE_SIZE = 4096;
+	private static final int PROPERTY_CACHE_MAX_LENGTH = 64;
+	private static final int PROPERTY_CACHE_MAX_MISSES = 8;
+
+	private static final TreeInfo[] INDEXES = new TreeInfo[INDEX_CACHE_SIZE];
+	/**
+	 * direct mapped cache indexed by hash of the property, colliding property
+	 * replaces the previous one once it missed its slot more times than
+	 * PROPERTY_CACHE_MAX_MISSES since the last hit, so more keys cycling over
+	 * the same slot do not evict each other on every lookup. Races are benign,
+	 * all fields of TreeInfo are final so instances are safely published and
+	 * lost update only costs an extra instance or a miss.
+	 */
+	private static final TreeInfo[] PROPERTIES = new TreeInfo[PROPERTY_CACHE_SIZE];
+	/**
+	 * misses of the cached property since its last hit, per slot
+	 */
+	private static final byte[] PROPERTY_MISSES = new byte[PROPERTY_CACHE_SIZE];
+
+	static {
+		for (int i = 0; i < INDEXES.length; i++) {
+			INDEXES[i] = new TreeInfo(i);
+		}
+	}
+
 	private final TreeInfoType type;
-	private final int index;
 	private final String property;
+	/**
+	 * index for index, hash of the property for property, shared so tree
+	 * info stays small
+	 */
+	private final int value;
 
 	public TreeInfo(int index) {
 		this(TreeInfoType.INDEX, index, null);
@@ -33,8 +64,51 @@ public class TreeInfo {
 
 	private TreeInfo(TreeInfoType type, int index, String property) {
 		this.type = type;
-		this.index = index;
 		this.property = property;
+		this.value = type == TreeInfoType.INDEX ? index : property == null ? 0 : property.hashCode();
+	}
+
+	/**
+	 * Returns tree info of this index. Instances of small indexes are shared.
+	 * 
+	 * @param index
+	 * @return tree info of the index
+	 * @since 1.2.0
+	 */
+	public static TreeInfo of(int index) {
+		if (index >= 0 && index < INDEX_CACHE_SIZE)
+			return INDEXES[index];
+		return new TreeInfo(index);
+	}
+
+	/**
+	 * Returns tree info of this property. Instances are shared via bounded
+	 * cache indexed by hash of the property, where a colliding property
+	 * replaces the previous one only after it was not used for several
+	 * lookups of its slot, so frequently used properties stay cached. Long
+	 * properties are not cached.
+	 * 
+	 * @param property
+	 * @return tree info of the property
+	 * @since 1.2.0
+	 */
+	public static TreeInfo of(String property) {
+		if (property == null || property.length() > PROPERTY_CACHE_MAX_LENGTH)
+			return new TreeInfo(property);
+		int hash = property.hashCode();
+		int slot = (hash ^ (hash >>> 16)) & (PROPERTY_CACHE_SIZE - 1);
+		TreeInfo info = PROPERTIES[slot];
+		if (info != null && info.value == hash && property.equals(info.property)) {
+			if (PROPERTY_MISSES[slot] != 0)
+				PROPERTY_MISSES[slot] = 0;
+			return info;
+		}
+		TreeInfo created = new TreeInfo(property);
+		if (info == null || ++PROPERTY_MISSES[slot] > PROPERTY_CACHE_MAX_MISSES) {
+			PROPERTIES[slot] = created;
+			PROPERTY_MISSES[slot] = 0;
+		}
+		return created;
 	}
 
 	public TreeInfoType getType() {
@@ -42,17 +116,45 @@ public class TreeInfo {
 	}
 
 	public int getIndex() {
-		return index;
+		return type == TreeInfoType.INDEX ? value : NOT_AN_INDEX;
 	}
 
 	public String getProperty() {
 		return property;
 	}
 
+	/**
+	 * Returns hash of the property computed when this tree info was created,
+	 * same as {@link String#hashCode()} of the property
+	 * 
+	 * @return hash of the property or 0 for index
+	 * @since 1.2.0
+	 */
+	public int getPropertyHash() {
+		return type == TreeInfoType.PROPERTY ? value : 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return value;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof TreeInfo))
+			return false;
+		TreeInfo other = (TreeInfo) obj;
+		if (value != other.value || type != other.type)
+			return false;
+		return property == null ? other.property == null : property.equals(other.property);
+	}
+
 	@Override
 	public String toString() {
 		if (type == TreeInfoType.INDEX)
-			return "TreeInfo [index=" + index + "]";
+			return "TreeInfo [index=" + value + "]";
 		else
 			return "TreeInfo [property=" + property + "]";
 	}
@@ -80,20 +182,57 @@ public class TreeInfo {
 	 * @since 1.1.0
 	 */
 	public static String toPath(Collection<TreeInfo> tree) {
-		String path = "";
+		return appendPath(tree, new StringBuilder(tree.size() * 8)).toString();
+	}
+
+	/**
+	 * Writes path of the list of tree info into provided builder
+	 * 
+	 * @param tree
+	 * @param out
+	 *            builder to append path to
+	 * @return provided builder
+	 * @since 1.2.0
+	 */
+	public static StringBuilder appendPath(Collection<TreeInfo> tree, StringBuilder out) {
+		boolean first = true;
+		for (TreeInfo nfo : tree) {
+			if (!first)
+				out.append('.');
+			first = false;
+			if (nfo.getType() == TreeInfoType.INDEX)
+				out.append('@').append(nfo.getIndex());
+			else
+				out.append(nfo.getProperty());
+		}
+		return out;
+	}
+
+	/**
+	 * Writes path of the list of tree info into provided buffer
+	 * 
+	 * @param tree
+	 * @param out
+	 *            buffer to append path to
+	 * @return provided buffer
+	 * @throws IOException
+	 *             if buffer fails to append
+	 * @since 1.2.0
+	 */
+	public static Appendable appendPath(Collection<TreeInfo> tree, Appendable out) throws IOException {
+		if (out instanceof StringBuilder)
+			return appendPath(tree, (StringBuilder) out);
+
+		boolean first = true;
 		for (TreeInfo nfo : tree) {
-			switch (nfo.getType()) {
-			case INDEX:
-				path += "@" + nfo.getIndex();
-				break;
-			case PROPERTY:
-				path += nfo.getProperty();
-				break;
-			}
-			path += ".";
+			if (!first)
+				out.append('.');
+			first = false;
+			if (nfo.getType() == TreeInfoType.INDEX)
+				out.append('@').append(Integer.toString(nfo.getIndex()));
+			else
+				out.append(nfo.getProperty());
 		}
-		if (path.endsWith("."))
-			path = path.substring(0, path.length() - 1);
-		return path;
+		return out;
 	}
 }
@@ -16,4 +16,15 @@ public interface IJsonElementEntry extends IVisitorCallbackBase {
 	 */
 	public void skip();
 
+	/**
+	 * Requests this element to be fully built so it is available via
+	 * {@link IJsonElementExit#getElement()} when it ends.
+	 * <p>
+	 * Only has effect on visitors that do not build every element, such as
+	 * {@link JsonStreamVisitor} in lightweight mode. Other visitors ignore it.
+	 * 
+	 * @since 1.2.0
+	 */
+	public void retain();
+
 }
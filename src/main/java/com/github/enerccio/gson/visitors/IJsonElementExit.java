@@ -14,14 +14,58 @@ public interface IJsonElementExit extends IVisitorCallbackBase {
 
 	/**
 	 * Returns element that was visited
+	 * <p>
+	 * For {@link JsonElementType#PROPERTY} this is new object with this
+	 * property only, use {@link #getValue()} to get the value without
+	 * allocating it.
 	 * 
 	 * @return json element
 	 * @throws IllegalStateException
-	 *             when this visit has no element (such as property)
+	 *             when this visit has no element (such as element that was not
+	 *             retained in lightweight visit)
 	 * @since 1.1.0
 	 */
 	public JsonElement getElement();
 
+	/**
+	 * Returns value of the visited element.
+	 * <p>
+	 * Same as {@link #getElement()}, except for
+	 * {@link JsonElementType#PROPERTY} where value of the property is
+	 * returned.
+	 * 
+	 * @return json element
+	 * @throws IllegalStateException
+	 *             when this visit has no element (such as element that was not
+	 *             retained in lightweight visit)
+	 * @since 1.2.0
+	 */
+	public JsonElement getValue();
+
+	/**
+	 * Returns value of visited number as long.
+	 * <p>
+	 * Unlike {@link #getElement()} this does not need to build the element.
+	 * 
+	 * @return number value as long
+	 * @throws IllegalStateException
+	 *             when visited element is not a number
+	 * @since 1.2.0
+	 */
+	public long getAsLong();
+
+	/**
+	 * Returns value of visited number as double.
+	 * <p>
+	 * Unlike {@link #getElement()} this does not need to build the element.
+	 * 
+	 * @return number value as double
+	 * @throws IllegalStateException
+	 *             when visited element is not a number
+	 * @since 1.2.0
+	 */
+	public double getAsDouble();
+
 	/**
 	 * Returns property name for this visited element (if element is part of
 	 * object)
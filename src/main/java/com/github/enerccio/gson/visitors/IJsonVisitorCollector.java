@@ -0,0 +1,50 @@
+package com.github.enerccio.gson.visitors;
+
+/**
+ * Listener that collects a result and can be split between parallel tasks.
+ * <p>
+ * Used by {@link ParallelJsonTreeVisitor}. Each task receives events of its
+ * part of the tree in document order on its own collector, collectors of the
+ * parts are then joined back in document order.
+ * 
+ * @author pvan
+ * @since 1.2.0
+ * @param <R>
+ *            type of the collected result
+ */
+public interface IJsonVisitorCollector<R> extends IJsonVisitorListener {
+
+	/**
+	 * Creates collector for part of the tree that will be visited by another
+	 * task.
+	 * <p>
+	 * Called right after the container being split was entered, so forked
+	 * collector should start in the current state of this collector but with
+	 * no collected results.
+	 * 
+	 * @return new collector
+	 * @since 1.2.0
+	 */
+	public IJsonVisitorCollector<R> fork();
+
+	/**
+	 * Merges results of the forked collector into this collector.
+	 * <p>
+	 * Collectors are joined in document order, ie results of other follow
+	 * results already collected by this collector.
+	 * 
+	 * @param other
+	 *            collector previously created by {@link #fork()}
+	 * @since 1.2.0
+	 */
+	public void join(IJsonVisitorCollector<R> other);
+
+	/**
+	 * Returns collected result
+	 * 
+	 * @return result
+	 * @since 1.2.0
+	 */
+	public R getResult();
+
+}
@@ -1,5 +1,6 @@
 package com.github.enerccio.gson.visitors;
 
+import java.io.IOException;
 import java.util.Collection;
 
 import com.github.enerccio.gson.tree.TreeInfo;
@@ -22,12 +23,24 @@ public interface IVisitorCallbackBase {
 
 	/**
 	 * tree of properties/indexes of this element
+	 * <p>
+	 * Returned collection is read-only view of the path shared by the visit
+	 * and is only valid during the callback. Copy it if you need to keep it.
 	 * 
 	 * @return
 	 * @since 1.1.0
 	 */
 	public Collection<TreeInfo> getTree();
 
+	/**
+	 * Last element of the {@link #getTree()}, ie property or index of this
+	 * element in its parent.
+	 * 
+	 * @return last path element or null for root element
+	 * @since 1.2.0
+	 */
+	public TreeInfo getLastTreeInfo();
+
 	/**
 	 * Textual representation of the {@link #getTree()}
 	 * 
@@ -35,4 +48,27 @@ public interface IVisitorCallbackBase {
 	 */
 	public String getPath();
 
+	/**
+	 * Writes textual representation of the {@link #getTree()} into provided
+	 * buffer, same as {@link #getPath()} without creating the string.
+	 * 
+	 * @param out
+	 *            buffer to append path to
+	 * @throws IOException
+	 *             if buffer fails to append
+	 * @since 1.2.0
+	 */
+	public void appendPath(Appendable out) throws IOException;
+
+	/**
+	 * Stops whole visit.
+	 * <p>
+	 * No more callbacks are fired after current callback returns, not even
+	 * exit callbacks of elements that were entered. Streaming visitors stop
+	 * reading the input as well.
+	 * 
+	 * @since 1.2.0
+	 */
+	public void stop();
+
 }
@@ -1,14 +1,21 @@
 package com.github.enerccio.gson.visitors;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
 
+import com.github.enerccio.gson.Utf8Reader;
 import com.github.enerccio.gson.tree.TreeInfo;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -17,13 +24,24 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 
 /**
  * Json Streaming Visitor
  * <p>
- * Streamingly iterate over JSON string.
+ * Streamingly iterate over JSON string or any character source.
  * <p>
- * This class is mostly thread safe, the only unsafe component is listener setting.
+ * Input is consumed token by token straight from the {@link Reader}, so
+ * visiting {@link Reader}, {@link InputStream} or {@link Path} does not require
+ * whole document to be loaded into memory first.
+ * <p>
+ * By default every visited element is built into {@link JsonElement}, so whole
+ * document ends up in memory. In lightweight mode (see
+ * {@link #setLightweight(boolean)}) only primitives and subtrees which were
+ * retained by the listener via {@link IJsonElementEntry#retain()} are built,
+ * everything else is thrown away as soon as it is visited.
+ * <p>
+ * This class is mostly thread safe, the only unsafe components are listener and mode setting.
  * If you need this to be thread safe, use {@link #visit(String, IJsonVisitorListener)} instead.
  * @author pvan
  * @since 1.1.0
@@ -32,10 +50,10 @@ public class JsonStreamVisitor implements IJsonVisitor {
 	
 	private static class StreamingElementCallbackBase {
 		
-		private LinkedList<CurrentJsonElement> stack;
+		private ElementStack stack;
 		private int i;
 		
-		public StreamingElementCallbackBase(LinkedList<CurrentJsonElement> stack) {
+		public StreamingElementCallbackBase(ElementStack stack) {
 			this.stack = stack;
 		}
 		
@@ -47,11 +65,31 @@ public class JsonStreamVisitor implements IJsonVisitor {
 			return stack.get(i);
 		}
 		
+		/**
+		 * Returns value of the property that is not built, its value was
+		 * popped last and stays valid until next push
+		 */
+		protected CurrentJsonElement popped() {
+			return stack.get(i + 1);
+		}
+		
+		public void stop() {
+			stack.stopped = true;
+		}
+		
+		public String getPath() {
+			return stack.paths.get(c().treeRO);
+		}
+		
+		public void appendPath(Appendable out) throws IOException {
+			TreeInfo.appendPath(c().treeRO, out);
+		}
+		
 	}
 
 	private static class StreamingElementEntry extends StreamingElementCallbackBase implements IJsonElementEntry {
 
-		public StreamingElementEntry(LinkedList<CurrentJsonElement> stack) {
+		public StreamingElementEntry(ElementStack stack) {
 			super(stack);
 		}
 
@@ -66,20 +104,25 @@ public class JsonStreamVisitor implements IJsonVisitor {
 		}
 
 		@Override
-		public String getPath() {
-			return TreeInfo.toPath(getTree());
+		public TreeInfo getLastTreeInfo() {
+			return c().treeRO.last();
 		}
 
 		@Override
 		public void skip() {
 			c().skip = true;
 		}
+
+		@Override
+		public void retain() {
+			c().retain = true;
+		}
 		
 	}
 	
 	private static class StreamingElementExit extends StreamingElementCallbackBase implements IJsonElementExit {
 
-		public StreamingElementExit(LinkedList<CurrentJsonElement> stack) {
+		public StreamingElementExit(ElementStack stack) {
 			super(stack);
 		}
 
@@ -94,13 +137,49 @@ public class JsonStreamVisitor implements IJsonVisitor {
 		}
 
 		@Override
-		public String getPath() {
-			return TreeInfo.toPath(getTree());
+		public TreeInfo getLastTreeInfo() {
+			return c().treeRO.last();
 		}
 
 		@Override
 		public JsonElement getElement() {
-			return c().builtElement;
+			JsonElement e = getValue();
+			if (c().type == JsonElementType.PROPERTY) {
+				JsonObject wrap = new JsonObject();
+				wrap.add(c().selfProperty, e);
+				return wrap;
+			}
+			return e;
+		}
+
+		@Override
+		public JsonElement getValue() {
+			CurrentJsonElement c = c();
+			JsonElement e = c.element();
+			if (e == null && c.type == JsonElementType.PROPERTY) {
+				// only values that were retained or requested by the listener
+				// are available
+				CurrentJsonElement value = popped();
+				e = value.detach ? JsonNull.INSTANCE : value.builtElement;
+			}
+			if (e == null)
+				throw new IllegalStateException("element was not retained");
+			return e;
+		}
+
+		@Override
+		public long getAsLong() {
+			String number = c().number();
+			try {
+				return Long.parseLong(number);
+			} catch (NumberFormatException e) {
+				return new BigDecimal(number).longValue();
+			}
+		}
+
+		@Override
+		public double getAsDouble() {
+			return Double.parseDouble(c().number());
 		}
 
 		@Override
@@ -126,7 +205,10 @@ public class JsonStreamVisitor implements IJsonVisitor {
 		@Override
 		public JsonElement detach() {
 			c().detach = true;
-			return c().builtElement;
+			if (c().type == JsonElementType.PROPERTY) {
+				return null;
+			}
+			return c().element();
 		}
 		
 	}
@@ -134,16 +216,74 @@ public class JsonStreamVisitor implements IJsonVisitor {
 	private static class CurrentJsonElement {
 		private boolean detach;
 		private boolean skip;
+		private boolean retain;
+		private boolean build;
 		
 		private JsonElementType type;
-		private List<TreeInfo> tree;
-		private Collection<TreeInfo> treeRO;
+		private int depth;
+		private final TreePath.View treeRO;
 		
 		private String parentProperty;
-		private int parentArrayPos = -1;
+		private int parentArrayPos;
+		private int childCount;
 		private JsonElement builtElement;
+		private String value;
+		private boolean booleanValue;
 		
 		private String selfProperty;
+		
+		public CurrentJsonElement(TreePath.View treeRO) {
+			this.treeRO = treeRO;
+		}
+		
+		private void reset() {
+			detach = false;
+			skip = false;
+			retain = false;
+			build = false;
+			type = null;
+			depth = 0;
+			parentProperty = null;
+			parentArrayPos = -1;
+			childCount = 0;
+			builtElement = null;
+			value = null;
+			booleanValue = false;
+			selfProperty = null;
+		}
+		
+		/**
+		 * Returns built element, building primitives on demand
+		 * 
+		 * @return element or null if element was not built
+		 */
+		private JsonElement element() {
+			if (builtElement == null) {
+				switch (type) {
+				case NULL:
+					builtElement = JsonNull.INSTANCE;
+					break;
+				case NUMBER:
+					builtElement = new JsonPrimitive(new LazyNumber(value));
+					break;
+				case STRING:
+					builtElement = new JsonPrimitive(value);
+					break;
+				case BOOLEAN:
+					builtElement = new JsonPrimitive(booleanValue);
+					break;
+				default:
+					break;
+				}
+			}
+			return builtElement;
+		}
+		
+		private String number() {
+			if (type != JsonElementType.NUMBER)
+				throw new IllegalStateException("element is not a number");
+			return value;
+		}
 
 		@Override
 		public String toString() {
@@ -151,7 +291,96 @@ public class JsonStreamVisitor implements IJsonVisitor {
 		}		
 	}
 	
+	/**
+	 * Array backed stack of reusable elements. Popped element stays valid until next push.
+	 */
+	private static class ElementStack {
+		
+		private final TreePath path;
+		private CurrentJsonElement[] elements = new CurrentJsonElement[16];
+		private int size = 0;
+		private boolean stopped = false;
+		private final PathCache paths = new PathCache();
+		
+		public ElementStack(TreePath path) {
+			this.path = path;
+		}
+		
+		public CurrentJsonElement push() {
+			if (size == elements.length) {
+				CurrentJsonElement[] grown = new CurrentJsonElement[size * 2];
+				System.arraycopy(elements, 0, grown, 0, size);
+				elements = grown;
+			}
+			CurrentJsonElement e = elements[size];
+			if (e == null) {
+				e = elements[size] = new CurrentJsonElement(path.view(0));
+			}
+			e.reset();
+			++size;
+			return e;
+		}
+		
+		public CurrentJsonElement pop() {
+			CurrentJsonElement e = elements[--size];
+			path.truncate(size == 0 ? 0 : elements[size - 1].depth);
+			return e;
+		}
+		
+		public CurrentJsonElement get(int i) {
+			return elements[i];
+		}
+		
+		public CurrentJsonElement peek() {
+			return size == 0 ? null : elements[size - 1];
+		}
+		
+		public int size() {
+			return size;
+		}
+		
+		public boolean isEmpty() {
+			return size == 0;
+		}
+	}
+	
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
 	private IJsonVisitorListener listener = JsonTreeVisitorBase.EMPTY_VISITOR;
+	private boolean lightweight = false;
+	
+	/**
+	 * Sets lightweight mode.
+	 * <p>
+	 * In lightweight mode arrays and objects (and thus properties) are only built
+	 * when they, or any of their parents, were retained in
+	 * {@link IJsonVisitorListener#onElementStart(IJsonElementEntry)}. Calling
+	 * {@link IJsonElementExit#getElement()} on element that was not built throws
+	 * {@link IllegalStateException}. Visit then only returns built element if root
+	 * was retained.
+	 * <p>
+	 * Memory used by lightweight visit is bounded by nesting depth and size of
+	 * retained subtrees.
+	 * 
+	 * @param lightweight
+	 *            true to only build retained elements, false to build everything
+	 * @return this visitor
+	 * @since 1.2.0
+	 */
+	public JsonStreamVisitor setLightweight(boolean lightweight) {
+		this.lightweight = lightweight;
+		return this;
+	}
+	
+	/**
+	 * Returns whether this visitor is in lightweight mode
+	 * 
+	 * @return true if only retained elements are built
+	 * @since 1.2.0
+	 */
+	public boolean isLightweight() {
+		return lightweight;
+	}
 	
 	@Override
 	public void visit(String json) {
@@ -181,18 +410,134 @@ public class JsonStreamVisitor implements IJsonVisitor {
 	 */
 	public JsonElement visit(String json, IJsonVisitorListener listener) {
 		try {
-			return doVisit(json, listener);
+			return doVisit(new StringReader(json), listener, lightweight);
 		} catch (Exception e) {
 			throw new IllegalArgumentException("malformed JSON", e);
 		}
 	}
 	
-	private JsonElement doVisit(String json, IJsonVisitorListener listener) throws IOException {
-		StringReader r = new StringReader(json);
+	/**
+	 * Visits JSON read from this reader, calling previously set listener in the process.
+	 * <p>
+	 * Reader is not closed.
+	 * @param reader source of JSON
+	 * @return optionally last built item
+	 * @throws IOException when reading from reader fails
+	 * @since 1.2.0
+	 */
+	public JsonElement visit(Reader reader) throws IOException {
+		return visit(reader, listener);
+	}
+	
+	/**
+	 * Visits JSON read from this reader with this listener.
+	 * <p>
+	 * Tokens are read directly from the reader as they are visited, so whole
+	 * document does not have to be in memory. Reader is not closed.
+	 * <p>
+	 * This method is thread safe.
+	 * @param reader source of JSON
+	 * @param listener to fire events
+	 * @return optionally last built item
+	 * @throws IOException when reading from reader fails
+	 * @throws IllegalArgumentException when JSON is malformed
+	 * @since 1.2.0
+	 */
+	public JsonElement visit(Reader reader, IJsonVisitorListener listener) throws IOException {
+		try {
+			return doVisit(reader, listener, lightweight);
+		} catch (MalformedJsonException e) {
+			throw new IllegalArgumentException("malformed JSON", e);
+		} catch (EOFException e) {
+			throw new IllegalArgumentException("malformed JSON", e);
+		}
+	}
+	
+	/**
+	 * Visits JSON read from this input stream with this listener.
+	 * <p>
+	 * Stream is not closed.
+	 * <p>
+	 * This method is thread safe.
+	 * @param is source of JSON
+	 * @param charset encoding of the stream
+	 * @param listener to fire events
+	 * @return optionally last built item
+	 * @throws IOException when reading from stream fails
+	 * @throws IllegalArgumentException when JSON is malformed
+	 * @since 1.2.0
+	 */
+	public JsonElement visit(InputStream is, Charset charset, IJsonVisitorListener listener) throws IOException {
+		if (UTF8.equals(charset))
+			return visit(new Utf8Reader(is), listener);
+		return visit(new InputStreamReader(is, charset), listener);
+	}
+	
+	/**
+	 * Visits JSON encoded in UTF-8 read from this channel with this listener.
+	 * <p>
+	 * Channel is not closed.
+	 * <p>
+	 * This method is thread safe.
+	 * @param channel source of JSON
+	 * @param listener to fire events
+	 * @return optionally last built item
+	 * @throws IOException when reading from channel fails
+	 * @throws IllegalArgumentException when JSON is malformed
+	 * @since 1.2.0
+	 */
+	public JsonElement visit(ReadableByteChannel channel, IJsonVisitorListener listener) throws IOException {
+		return visit(new Utf8Reader(channel), listener);
+	}
+	
+	/**
+	 * Visits JSON encoded in UTF-8 in remaining bytes of this buffer with this listener.
+	 * <p>
+	 * Bytes are decoded directly from the buffer, position of the buffer is advanced
+	 * as they are read.
+	 * <p>
+	 * This method is thread safe.
+	 * @param buffer source of JSON
+	 * @param listener to fire events
+	 * @return optionally last built item
+	 * @throws IllegalArgumentException when JSON is malformed
+	 * @since 1.2.0
+	 */
+	public JsonElement visit(ByteBuffer buffer, IJsonVisitorListener listener) {
+		try {
+			return visit(new Utf8Reader(buffer), listener);
+		} catch (IOException e) {
+			// can't happen with byte buffer
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Visits JSON file encoded in UTF-8 with this listener.
+	 * <p>
+	 * This method is thread safe.
+	 * @param path file to visit
+	 * @param listener to fire events
+	 * @return optionally last built item
+	 * @throws IOException when reading of the file fails
+	 * @throws IllegalArgumentException when JSON is malformed
+	 * @since 1.2.0
+	 */
+	public JsonElement visit(Path path, IJsonVisitorListener listener) throws IOException {
+		Reader r = Files.newBufferedReader(path, UTF8);
+		try {
+			return visit(r, listener);
+		} finally {
+			r.close();
+		}
+	}
+	
+	private JsonElement doVisit(Reader r, IJsonVisitorListener listener, boolean lightweight) throws IOException {
 		@SuppressWarnings("resource")
 		JsonReader jsr = new JsonReader(r);
 		
-		LinkedList<CurrentJsonElement> stack = new LinkedList<CurrentJsonElement>();
+		TreePath path = new TreePath();
+		ElementStack stack = new ElementStack(path);
 		
 		StreamingElementEntry enter = new StreamingElementEntry(stack);
 		StreamingElementExit exit = new StreamingElementExit(stack);
@@ -202,7 +547,7 @@ public class JsonStreamVisitor implements IJsonVisitor {
 			while (true) {
 				JsonToken t = jsr.peek();
 				
-				CurrentJsonElement current = stack.isEmpty() ? null : stack.getLast();
+				CurrentJsonElement current = stack.peek();
 				
 				switch (t) {
 				case END_DOCUMENT:
@@ -214,20 +559,30 @@ public class JsonStreamVisitor implements IJsonVisitor {
 							current.type == JsonElementType.ARRAY)) {
 						throw new IllegalArgumentException("malformed json string input");
 					}
-					CurrentJsonElement ne = new CurrentJsonElement();
+					CurrentJsonElement ne = stack.push();
 					ne.type = t == JsonToken.BEGIN_ARRAY ? JsonElementType.ARRAY : JsonElementType.OBJECT;
-					processTree(current, ne);
-					ne.builtElement = t ==  JsonToken.BEGIN_ARRAY ? new JsonArray() : new JsonObject();
-					stack.addLast(ne);
+					processTree(path, current, ne, lightweight);
 					if (current == null || !current.skip) {
 						enter.setCurrent(stack.size() - 1);
 						listener.onElementStart(enter);
+						if (stack.stopped)
+							return partialRoot(stack, lastPoppedElement);
 					}
 					if (ne.skip == false && current != null) {
 						ne.skip = current.skip;
-					}					
+					}
+					if (ne.build || ne.retain) {
+						ne.build = true;
+						ne.builtElement = t == JsonToken.BEGIN_ARRAY ? new JsonArray() : new JsonObject();
+					}
 					
-					if (t == JsonToken.BEGIN_ARRAY) 
+					if (ne.skip && !ne.build) {
+						// nobody will see this subtree, let the reader skip it whole
+						// and continue as if the container just ended
+						jsr.skipValue();
+						lastPoppedElement = stack.pop();
+						t = t == JsonToken.BEGIN_ARRAY ? JsonToken.END_ARRAY : JsonToken.END_OBJECT;
+					} else if (t == JsonToken.BEGIN_ARRAY) 
 						jsr.beginArray();
 					else
 						jsr.beginObject();
@@ -240,7 +595,7 @@ public class JsonStreamVisitor implements IJsonVisitor {
 					if (current != null && current.type == JsonElementType.OBJECT) {
 						throw new IllegalArgumentException("malformed json string input");
 					}
-					CurrentJsonElement ne = new CurrentJsonElement();
+					CurrentJsonElement ne = stack.push();
 					switch (t) {
 					case NULL:
 						ne.type = JsonElementType.NULL;
@@ -257,13 +612,13 @@ public class JsonStreamVisitor implements IJsonVisitor {
 					default:
 						break;
 					}
-					processTree(current, ne);
-					
-					stack.addLast(ne);
+					processTree(path, current, ne, lightweight);
 					
 					if (current == null || !current.skip) {
 						enter.setCurrent(stack.size() - 1);
 						listener.onElementStart(enter);
+						if (stack.stopped)
+							return partialRoot(stack, lastPoppedElement);
 					}
 					if (ne.skip == false && current != null) {
 						ne.skip = current.skip;
@@ -272,16 +627,14 @@ public class JsonStreamVisitor implements IJsonVisitor {
 					switch (t) {
 					case NULL:
 						jsr.nextNull();
-						ne.builtElement = JsonNull.INSTANCE;
 						break;
 					case NUMBER:
-						ne.builtElement = new JsonPrimitive(jsr.nextDouble());
-						break;
 					case STRING:
-						ne.builtElement = new JsonPrimitive(jsr.nextString());
+						// numbers keep their exact textual value
+						ne.value = jsr.nextString();
 						break;
 					case BOOLEAN:
-						ne.builtElement = new JsonPrimitive(jsr.nextBoolean());
+						ne.booleanValue = jsr.nextBoolean();
 						break;
 					default:
 						break;
@@ -290,9 +643,11 @@ public class JsonStreamVisitor implements IJsonVisitor {
 					if (!ne.skip) {
 						exit.setCurrent(stack.size() - 1);
 						listener.onElementEnd(exit);
+						if (stack.stopped)
+							return partialRoot(stack, lastPoppedElement);
 					}
 					
-					lastPoppedElement = stack.removeLast();
+					lastPoppedElement = stack.pop();
 				} break;
 
 				case NAME: {
@@ -300,23 +655,25 @@ public class JsonStreamVisitor implements IJsonVisitor {
 						throw new IllegalArgumentException("malformed json string input");
 					}
 					
-					CurrentJsonElement ne = new CurrentJsonElement();
+					CurrentJsonElement ne = stack.push();
 					ne.type = JsonElementType.PROPERTY;
-					processTree(current, ne);
 					ne.selfProperty = jsr.nextName();
 					ne.parentProperty = ne.selfProperty;
-					ne.tree.add(new TreeInfo(ne.selfProperty));
-					
-					stack.addLast(ne);
+					processTree(path, current, ne, lightweight);
 					
 					if (!current.skip) {
 						enter.setCurrent(stack.size() - 1);
 						listener.onElementStart(enter);
+						if (stack.stopped)
+							return partialRoot(stack, lastPoppedElement);
 					}
 					
 					if (ne.skip == false && current != null) {
 						ne.skip = current.skip;
 					}
+					if (ne.retain) {
+						ne.build = true;
+					}
 					
 				} break;
 				
@@ -330,14 +687,16 @@ public class JsonStreamVisitor implements IJsonVisitor {
 					if (!current.skip) {
 						exit.setCurrent(stack.size() - 1);
 						listener.onElementEnd(exit);
+						if (stack.stopped)
+							return partialRoot(stack, lastPoppedElement);
 					}
 					
-					lastPoppedElement = stack.removeLast();
-					current = stack.size() == 0 ? null : stack.getLast();
+					lastPoppedElement = stack.pop();
+					current = stack.peek();
 				} break;				
 				}
 				
-				if (current != null && current.type == JsonElementType.ARRAY) {
+				if (current != null && current.type == JsonElementType.ARRAY && current.build) {
 					switch (t) {						
 					case END_ARRAY:
 					case END_OBJECT:
@@ -348,7 +707,7 @@ public class JsonStreamVisitor implements IJsonVisitor {
 						if (lastPoppedElement.detach) {
 							((JsonArray) current.builtElement).add(JsonNull.INSTANCE);
 						} else {
-							((JsonArray) current.builtElement).add(lastPoppedElement.builtElement);
+							((JsonArray) current.builtElement).add(lastPoppedElement.element());
 						}
 						break;						
 					default:
@@ -366,21 +725,23 @@ public class JsonStreamVisitor implements IJsonVisitor {
 					case BOOLEAN:
 					case END_OBJECT:
 					case END_ARRAY:
-						JsonElement lastBuilt;
-						if (lastPoppedElement.detach) {
-							lastBuilt = JsonNull.INSTANCE;
-						}  else {
-							lastBuilt = lastPoppedElement.builtElement;
+						// property holds its value, wrapper object is only built on request,
+						// value of property that is not built is read from popped element
+						if (current.build) {
+							if (lastPoppedElement.detach) {
+								current.builtElement = JsonNull.INSTANCE;
+							} else {
+								current.builtElement = lastPoppedElement.element();
+							}
 						}
 						if (!current.skip) {
-							current.builtElement = new JsonObject();
-							((JsonObject) current.builtElement).add(current.selfProperty, lastBuilt);
 							exit.setCurrent(stack.size() - 1);
 							listener.onElementEnd(exit);
+							if (stack.stopped)
+								return partialRoot(stack, lastPoppedElement);
 						}
-						current.builtElement = lastBuilt;
-						lastPoppedElement = stack.removeLast();
-						current = stack.getLast();
+						lastPoppedElement = stack.pop();
+						current = stack.peek();
 						propertyEnded = true;
 						break;						
 					default:
@@ -389,7 +750,7 @@ public class JsonStreamVisitor implements IJsonVisitor {
 					
 				}
 				
-				if (current != null && current.type == JsonElementType.OBJECT && propertyEnded) {
+				if (current != null && current.type == JsonElementType.OBJECT && propertyEnded && current.build) {
 					if (!lastPoppedElement.detach) {
 						((JsonObject) current.builtElement).add(lastPoppedElement.selfProperty,
 								lastPoppedElement.builtElement);
@@ -401,32 +762,42 @@ public class JsonStreamVisitor implements IJsonVisitor {
 		}
 	}
 
-	private JsonElement byStack(LinkedList<CurrentJsonElement> stack, CurrentJsonElement lastPoppedElement) {
+	private JsonElement partialRoot(ElementStack stack, CurrentJsonElement lastPoppedElement) {
+		if (!stack.isEmpty())
+			return stack.get(0).element();
+		return lastPoppedElement == null ? null : lastPoppedElement.element();
+	}
+
+	private JsonElement byStack(ElementStack stack, CurrentJsonElement lastPoppedElement) {
 		if (!stack.isEmpty()) {
 			if (stack.size() == 1) {
-				if (stack.getFirst().type != JsonElementType.ARRAY && 
-						stack.getFirst().type != JsonElementType.OBJECT) {
-					return stack.getFirst().builtElement;
+				if (stack.get(0).type != JsonElementType.ARRAY && 
+						stack.get(0).type != JsonElementType.OBJECT) {
+					return stack.get(0).element();
 				}
 			}
 			throw new IllegalArgumentException("malformed JSON");
 		}
-		return lastPoppedElement.builtElement;
+		return lastPoppedElement.element();
 	}
 
-	private void processTree(CurrentJsonElement current, CurrentJsonElement ne) {
+	private void processTree(TreePath path, CurrentJsonElement current, CurrentJsonElement ne, boolean lightweight) {
 		if (current != null) {
-			ne.tree = new ArrayList<TreeInfo>(current.tree);
+			ne.build = current.build;
 			if (current.type == JsonElementType.PROPERTY) {
 				ne.parentProperty = current.selfProperty;
 			} else if (current.type == JsonElementType.ARRAY){
-				ne.parentArrayPos = ((JsonArray) current.builtElement).size();
-				ne.tree.add(new TreeInfo(ne.parentArrayPos));
+				ne.parentArrayPos = current.childCount++;
+				path.push(TreeInfo.of(ne.parentArrayPos));
 			}						
 		} else {
-			ne.tree = new ArrayList<TreeInfo>();
+			ne.build = !lightweight;
+		}
+		if (ne.type == JsonElementType.PROPERTY) {
+			path.push(TreeInfo.of(ne.selfProperty));
 		}
-		ne.treeRO = Collections.unmodifiableCollection(ne.tree);
+		ne.depth = path.size();
+		ne.treeRO.setDepth(ne.depth);
 	}
 
 	@Override
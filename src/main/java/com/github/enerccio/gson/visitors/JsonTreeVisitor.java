@@ -1,12 +1,17 @@
 package com.github.enerccio.gson.visitors;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map.Entry;
 
 import com.github.enerccio.gson.JsonHelper;
 import com.github.enerccio.gson.tree.TreeInfo;
+import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonNull;
@@ -18,6 +23,13 @@ import com.google.gson.JsonPrimitive;
  * 
  * This visitor first deserializes the string fully into tree of json values and
  * then visits the fully deserialized tree.
+ * <p>
+ * Properties are visited in document order. Listener must not modify visited
+ * objects and arrays other than via {@link IJsonElementExit#detach()}.
+ * <p>
+ * State of the visit is held by each call, so this class is mostly thread safe,
+ * the only unsafe components are listener and gson setting. If you need to share
+ * one visitor between threads, use {@link #visit(JsonElement, IJsonVisitorListener)}.
  * 
  * @author pvan
  * @since 1.1.0
@@ -26,8 +38,23 @@ public class JsonTreeVisitor extends JsonTreeVisitorBase {
 
 	@Override
 	public void visit(String json) {
+		visit(json, listener);
+	}
+
+	/**
+	 * Visits the string provided with this listener.
+	 * <p>
+	 * This method is thread safe.
+	 * 
+	 * @param json
+	 *            to visit
+	 * @param listener
+	 *            to fire events
+	 * @since 1.2.0
+	 */
+	public void visit(String json, IJsonVisitorListener listener) {
 		JsonElement parsed = gson.fromJson(json, JsonElement.class);
-		visit(parsed);
+		visit(parsed, listener);
 	}
 
 	/**
@@ -39,232 +66,397 @@ public class JsonTreeVisitor extends JsonTreeVisitorBase {
 	 * @since 1.1.0
 	 */
 	public void visit(JsonElement element) {
-		String previousPropery = lastProperty;
-		int previousArrayPosition = lastArrayPosition;
-		JsonElementType previousType = lastType;
-		Collection<TreeInfo> previousTree = lastTree;
-		JsonElement previousElement = lastElement;
-
-		try {
-			if (element == null || element.isJsonNull()) {
-				lastType = JsonElementType.NULL;
-				lastTree = getVisitorStack();
-				lastElement = JsonNull.INSTANCE;
-				lastSkip = false;
+		visit(element, listener);
+	}
 
-				listener.onElementStart(enter);
+	/**
+	 * Visit the json element provided with this listener.
+	 * <p>
+	 * This method is thread safe.
+	 * 
+	 * @param tree
+	 *            tree to visit
+	 * @param listener
+	 *            to fire events
+	 * @since 1.2.0
+	 */
+	public void visit(JsonElement element, IJsonVisitorListener listener) {
+		new Visit(listener, gson, maxDepth).run(element);
+	}
 
-				if (lastSkip) {
-					return;
-				}
+	/**
+	 * Sets maximum nesting depth of visited tree. Visiting deeper tree fails
+	 * with {@link IllegalArgumentException}.
+	 * <p>
+	 * Tree is visited without recursion, so depth is not limited by default.
+	 * 
+	 * @param maxDepth
+	 *            maximum number of properties and indexes in path of any
+	 *            element
+	 * @return this visitor
+	 * @since 1.2.0
+	 */
+	public JsonTreeVisitor setMaxDepth(int maxDepth) {
+		if (maxDepth < 0)
+			throw new IllegalArgumentException("max depth can't be negative");
+		this.maxDepth = maxDepth;
+		return this;
+	}
 
-				listener.onElementEnd(exit);
-			} else if (element.isJsonObject()) {
-				JsonObject o = element.getAsJsonObject();
-				lastType = JsonElementType.OBJECT;
-				lastTree = getVisitorStack();
-				lastElement = o;
-				lastSkip = false;
+	/**
+	 * Returns maximum nesting depth of visited tree
+	 * 
+	 * @return maximum depth
+	 * @since 1.2.0
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
 
-				listener.onElementStart(enter);
+	private int maxDepth = Integer.MAX_VALUE;
 
-				if (lastSkip) {
-					return;
-				}
+	/**
+	 * Open container or property of the visit
+	 */
+	private static class Frame {
+		private JsonElementType type;
+		private JsonElement element;
+		private String property;
+		private int arrayPosition;
+		/**
+		 * index of the array item being visited
+		 */
+		private int index;
+		private Iterator<Entry<String, JsonElement>> properties;
+		private Entry<String, JsonElement> entry;
+		private boolean valueVisited;
+	}
 
-				if (!o.entrySet().isEmpty())
-					for (Entry<String, JsonElement> entry : new HashSet<Entry<String, JsonElement>>(o.entrySet())) {
-						visitProperty(entry);
-						if (detach) {
-							detach = false;
-							o.entrySet().remove(entry);
-						}
-					}
+	/**
+	 * State of single visit, shared by its callbacks.
+	 */
+	private static class Visit {
+
+		private final IJsonVisitorListener listener;
+		private final Gson gson;
+		private final int maxDepth;
+		private Frame[] frames = new Frame[16];
+		private int size = 0;
+		private final ArrayList<TreeInfo> path = new ArrayList<TreeInfo>();
+		private final Collection<TreeInfo> pathRO = Collections.unmodifiableList(path);
+		private final PathCache paths = new PathCache();
+
+		private JsonElementType type;
+		private JsonElement element;
+		private String property;
+		private int arrayPosition;
+		private boolean skip;
+		private boolean detach;
+		private boolean stopped;
+
+		public Visit(IJsonVisitorListener listener, Gson gson, int maxDepth) {
+			this.listener = listener;
+			this.gson = gson;
+			this.maxDepth = maxDepth;
+		}
 
-				listener.onElementEnd(exit);
-			} else if (element.isJsonArray()) {
-				JsonArray a = element.getAsJsonArray();
-				lastType = JsonElementType.ARRAY;
-				lastTree = getVisitorStack();
-				lastElement = a;
-				lastSkip = false;
+		private void setCurrent(JsonElementType type, JsonElement element, String property, int arrayPosition) {
+			this.type = type;
+			this.element = element;
+			this.property = property;
+			this.arrayPosition = arrayPosition;
+		}
 
-				listener.onElementStart(enter);
+		/**
+		 * Visits the tree with explicit stack of open containers and
+		 * properties, so depth of the tree is not limited by thread stack.
+		 */
+		private void run(JsonElement root) {
+			enterElement(root, null, -1);
+
+			while (size > 0 && !stopped) {
+				Frame f = frames[size - 1];
+
+				switch (f.type) {
+				case PROPERTY:
+					if (!f.valueVisited) {
+						f.valueVisited = true;
+						enterElement(f.entry.getValue(), f.property, -1);
+						break;
+					}
+					if (detach) {
+						detach = false;
+						f.entry.setValue(JsonNull.INSTANCE);
+					}
+					if (stopped)
+						break;
+					setCurrent(JsonElementType.PROPERTY, f.element, f.property, -1);
+					listener.onElementEnd(exit);
+					--size;
+					path.remove(path.size() - 1);
+					break;
+
+				case OBJECT:
+					if (detach) {
+						// properties are removed via the iterator so the object
+						// is never copied
+						detach = false;
+						f.properties.remove();
+					}
+					if (f.properties.hasNext()) {
+						enterProperty(f.properties.next());
+					} else {
+						endContainer(f);
+					}
+					break;
 
-				if (lastSkip) {
-					return;
-				}
-				
-				if (a.size() != 0) {
-					for (int i = 0; i < a.size(); i++) {
-						lastArrayPosition = i;
-						lastProperty = null;
-						enter(i);
-						visit(a.get(i));
+				case ARRAY:
+					JsonArray a = f.element.getAsJsonArray();
+					if (f.index >= 0) {
+						// previous item has ended
 						if (detach) {
 							detach = false;
-							JsonHelper.arraySet(a, i, JsonNull.INSTANCE);
+							JsonHelper.arraySet(a, f.index, JsonNull.INSTANCE);
 						}
-						exit();
-						lastProperty = previousPropery;
-						lastArrayPosition = previousArrayPosition;
+						path.remove(path.size() - 1);
+						if (stopped)
+							break;
+					}
+					if (++f.index < a.size()) {
+						pushPath(TreeInfo.of(f.index));
+						enterElement(a.get(f.index), null, f.index);
+					} else {
+						endContainer(f);
 					}
+					break;
+
+				default:
+					throw new IllegalStateException("unexpected frame " + f.type);
 				}
+			}
+		}
 
-				listener.onElementEnd(exit);
+		private void enterElement(JsonElement element, String property, int arrayPosition) {
+			JsonElementType type;
+			if (element == null || element.isJsonNull()) {
+				element = JsonNull.INSTANCE;
+				type = JsonElementType.NULL;
+			} else if (element.isJsonObject()) {
+				type = JsonElementType.OBJECT;
+			} else if (element.isJsonArray()) {
+				type = JsonElementType.ARRAY;
 			} else {
 				JsonPrimitive p = element.getAsJsonPrimitive();
-				lastTree = getVisitorStack();
-				lastElement = p;
-				lastSkip = false;
-
 				if (p.isBoolean()) {
-					lastType = JsonElementType.BOOLEAN;
+					type = JsonElementType.BOOLEAN;
 				} else if (p.isNumber()) {
-					lastType = JsonElementType.NUMBER;
+					type = JsonElementType.NUMBER;
 				} else {
-					lastType = JsonElementType.STRING;
+					type = JsonElementType.STRING;
 				}
+			}
 
-				listener.onElementStart(enter);
+			setCurrent(type, element, property, arrayPosition);
+			skip = false;
+			listener.onElementStart(enter);
+			if (skip || stopped) {
+				return;
+			}
 
-				if (lastSkip) {
-					return;
+			if (type == JsonElementType.OBJECT || type == JsonElementType.ARRAY) {
+				Frame f = push(type, element, property);
+				f.arrayPosition = arrayPosition;
+				if (type == JsonElementType.OBJECT) {
+					f.properties = element.getAsJsonObject().entrySet().iterator();
 				}
-
+			} else {
 				listener.onElementEnd(exit);
 			}
-		} finally {
-			lastType = previousType;
-			lastTree = previousTree;
-			lastProperty = previousPropery;
-			lastElement = previousElement;
-			lastArrayPosition = previousArrayPosition;
 		}
-	}
 
-	private void visitProperty(Entry<String, JsonElement> entry) {
-		String previousPropery = lastProperty;
-		int previousArrayPosition = lastArrayPosition;
-		JsonElementType previousType = lastType;
-		Collection<TreeInfo> previousTree = lastTree;
-		JsonElement previousElement = lastElement;
-
-		try {
-			JsonElement e = entry.getValue();
-			enter(entry.getKey());
-			lastType = JsonElementType.PROPERTY;
-			lastSkip = false;
-			lastProperty = entry.getKey();
-			lastArrayPosition = -1;
-			lastTree = getVisitorStack();
-			JsonObject wrap = new JsonObject();
-			wrap.add(lastProperty, e);
-			lastElement = e;
+		private void enterProperty(Entry<String, JsonElement> entry) {
+			pushPath(TreeInfo.of(entry.getKey()));
+			setCurrent(JsonElementType.PROPERTY, entry.getValue(), entry.getKey(), -1);
+			skip = false;
 			listener.onElementStart(enter);
-			if (lastSkip) {
-				exit();
+			if (skip || stopped) {
+				path.remove(path.size() - 1);
 				return;
 			}
-			visit(e);
-			if (detach) {
-				detach = false;
-				entry.setValue(JsonNull.INSTANCE);
-			}
-			listener.onElementEnd(exit);
-			exit();
-		} finally {
-			lastType = previousType;
-			lastTree = previousTree;
-			lastProperty = previousPropery;
-			lastElement = previousElement;
-			lastArrayPosition = previousArrayPosition;
+			push(JsonElementType.PROPERTY, entry.getValue(), entry.getKey()).entry = entry;
 		}
-	}
 
-	private boolean lastSkip = false;
-	private JsonElementType lastType = null;
-	private Collection<TreeInfo> lastTree = null;
-	private String lastProperty = null;
-	private JsonElement lastElement = null;
-	private int lastArrayPosition = -1;
-	private boolean detach = false;
-
-	// shared so they are bound to the visitor and cannot be stored/reused!
-	private IJsonElementEntry enter = new IJsonElementEntry() {
-
-		@Override
-		public JsonElementType getType() {
-			return lastType;
+		private void endContainer(Frame f) {
+			--size;
+			setCurrent(f.type, f.element, f.property, f.arrayPosition);
+			listener.onElementEnd(exit);
 		}
 
-		@Override
-		public Collection<TreeInfo> getTree() {
-			return lastTree;
+		private void pushPath(TreeInfo info) {
+			if (path.size() >= maxDepth)
+				throw new IllegalArgumentException("JSON is nested deeper than " + maxDepth);
+			path.add(info);
 		}
 
-		@Override
-		public void skip() {
-			lastSkip = true;
+		private Frame push(JsonElementType type, JsonElement element, String property) {
+			if (size == frames.length) {
+				frames = Arrays.copyOf(frames, size * 2);
+			}
+			Frame f = frames[size];
+			if (f == null) {
+				f = frames[size] = new Frame();
+			}
+			++size;
+			f.type = type;
+			f.element = element;
+			f.property = property;
+			f.arrayPosition = -1;
+			f.index = -1;
+			f.valueVisited = false;
+			f.properties = null;
+			f.entry = null;
+			return f;
 		}
 
-		@Override
-		public String getPath() {
-			return TreeInfo.toPath(getTree());
+		private TreeInfo lastTreeInfo() {
+			return path.isEmpty() ? null : path.get(path.size() - 1);
 		}
-	};
 
-	private IJsonElementExit exit = new IJsonElementExit() {
+		// shared so they are bound to the visit and cannot be stored/reused!
+		private final IJsonElementEntry enter = new IJsonElementEntry() {
 
-		@Override
-		public JsonElementType getType() {
-			return lastType;
-		}
+			@Override
+			public JsonElementType getType() {
+				return type;
+			}
 
-		@Override
-		public Collection<TreeInfo> getTree() {
-			return lastTree;
-		}
+			@Override
+			public Collection<TreeInfo> getTree() {
+				return pathRO;
+			}
 
-		@Override
-		public String getPropertyName() {
-			return lastProperty;
-		}
+			@Override
+			public TreeInfo getLastTreeInfo() {
+				return lastTreeInfo();
+			}
 
-		@Override
-		public JsonElement getElement() {
-			return lastElement;
-		}
+			@Override
+			public void skip() {
+				skip = true;
+			}
 
-		@Override
-		public <X> X getAsObject(Type type) {
-			return gson.fromJson(getElement(), type);
-		}
+			@Override
+			public void retain() {
+				// tree is always fully built
+			}
 
-		@Override
-		public <X> X getAsObject(Class<X> clazz) {
-			return gson.fromJson(getElement(), clazz);
-		}
+			@Override
+			public String getPath() {
+				return paths.get(pathRO);
+			}
 
-		@Override
-		public int getArrayPosition() {
-			return lastArrayPosition;
-		}
+			@Override
+			public void appendPath(Appendable out) throws IOException {
+				TreeInfo.appendPath(pathRO, out);
+			}
 
-		@Override
-		public String getPath() {
-			return TreeInfo.toPath(getTree());
-		}
+			@Override
+			public void stop() {
+				stopped = true;
+			}
+		};
+
+		private final IJsonElementExit exit = new IJsonElementExit() {
 
-		@Override
-		public JsonElement detach() {
-			// detach is kinda useless here but can be done when used with JsonElement and not String
-			// there is no memory benefit as it is with detaching from streaming version though
-			detach = true;
-			if (getType() == JsonElementType.PROPERTY) {
-				return null;
+			@Override
+			public JsonElementType getType() {
+				return type;
 			}
-			return getElement();
-		}
-	};
+
+			@Override
+			public Collection<TreeInfo> getTree() {
+				return pathRO;
+			}
+
+			@Override
+			public TreeInfo getLastTreeInfo() {
+				return lastTreeInfo();
+			}
+
+			@Override
+			public String getPropertyName() {
+				return property;
+			}
+
+			@Override
+			public JsonElement getElement() {
+				if (type == JsonElementType.PROPERTY) {
+					JsonObject wrap = new JsonObject();
+					wrap.add(property, element);
+					return wrap;
+				}
+				return element;
+			}
+
+			@Override
+			public JsonElement getValue() {
+				return element;
+			}
+
+			@Override
+			public long getAsLong() {
+				if (type != JsonElementType.NUMBER)
+					throw new IllegalStateException("element is not a number");
+				return element.getAsLong();
+			}
+
+			@Override
+			public double getAsDouble() {
+				if (type != JsonElementType.NUMBER)
+					throw new IllegalStateException("element is not a number");
+				return element.getAsDouble();
+			}
+
+			@Override
+			public <X> X getAsObject(Type type) {
+				return gson.fromJson(getElement(), type);
+			}
+
+			@Override
+			public <X> X getAsObject(Class<X> clazz) {
+				return gson.fromJson(getElement(), clazz);
+			}
+
+			@Override
+			public int getArrayPosition() {
+				return arrayPosition;
+			}
+
+			@Override
+			public String getPath() {
+				return paths.get(pathRO);
+			}
+
+			@Override
+			public void appendPath(Appendable out) throws IOException {
+				TreeInfo.appendPath(pathRO, out);
+			}
+
+			@Override
+			public void stop() {
+				stopped = true;
+			}
+
+			@Override
+			public JsonElement detach() {
+				// detach is kinda useless here but can be done when used with JsonElement and not String
+				// there is no memory benefit as it is with detaching from streaming version though
+				detach = true;
+				if (getType() == JsonElementType.PROPERTY) {
+					return null;
+				}
+				return getElement();
+			}
+		};
+	}
 }
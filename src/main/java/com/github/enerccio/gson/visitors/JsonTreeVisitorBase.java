@@ -1,17 +1,12 @@
 package com.github.enerccio.gson.visitors;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.LinkedList;
-
 import com.github.enerccio.gson.GsonProvider;
-import com.github.enerccio.gson.tree.TreeInfo;
 import com.google.gson.Gson;
 
 /**
  * Base class for tree visitors.
  * 
- * Handles enter/exit trees and basic field management.
+ * Handles basic field management.
  * 
  * @author pvan
  * @since 1.1.0
@@ -32,10 +27,8 @@ abstract class JsonTreeVisitorBase implements IJsonVisitor {
 
 	};
 
-	private LinkedList<TreeInfo> stack = new LinkedList<TreeInfo>();
-	private Collection<TreeInfo> roView = Collections.unmodifiableCollection(stack);
 	protected IJsonVisitorListener listener = EMPTY_VISITOR;
-	protected Gson gson = GsonProvider.sharedGson;
+	protected Gson gson = GsonProvider.getDefaultGson();
 
 	/**
 	 * Override default gson
@@ -43,7 +36,7 @@ abstract class JsonTreeVisitorBase implements IJsonVisitor {
 	 * @param gson
 	 * @return this visitor
 	 * @since 1.1.0
-	 * @see {@link GsonProvider#sharedGson}
+	 * @see {@link GsonProvider#getDefaultGson()}
 	 */
 	public IJsonVisitor setGson(Gson gson) {
 		if (gson == null)
@@ -57,24 +50,4 @@ abstract class JsonTreeVisitorBase implements IJsonVisitor {
 		this.listener = listener;
 		return this;
 	}
-
-	protected void enter(int index) {
-		enter(new TreeInfo(index));
-	}
-
-	protected void enter(String property) {
-		enter(new TreeInfo(property));
-	}
-
-	private void enter(TreeInfo treeInfo) {
-		stack.addLast(treeInfo);
-	}
-
-	protected void exit() {
-		stack.removeLast();
-	}
-
-	protected Collection<TreeInfo> getVisitorStack() {
-		return roView;
-	}
 }
@@ -0,0 +1,82 @@
+package com.github.enerccio.gson.visitors;
+
+import java.io.ObjectStreamException;
+import java.math.BigDecimal;
+
+/**
+ * Number keeping lexeme of a visited number, parsed only when its value is
+ * requested. Written back it is the same text as was read.
+ * 
+ * @author pvan
+ * @since 1.2.0
+ */
+class LazyNumber extends Number {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String value;
+
+	LazyNumber(String value) {
+		this.value = value;
+	}
+
+	@Override
+	public int intValue() {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			try {
+				return (int) Long.parseLong(value);
+			} catch (NumberFormatException nfe) {
+				return new BigDecimal(value).intValue();
+			}
+		}
+	}
+
+	@Override
+	public long longValue() {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			return new BigDecimal(value).longValue();
+		}
+	}
+
+	@Override
+	public float floatValue() {
+		return Float.parseFloat(value);
+	}
+
+	@Override
+	public double doubleValue() {
+		return Double.parseDouble(value);
+	}
+
+	@Override
+	public String toString() {
+		return value;
+	}
+
+	/**
+	 * serialized as BigDecimal, so deserialization does not depend on this
+	 * class
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		return new BigDecimal(value);
+	}
+
+	@Override
+	public int hashCode() {
+		return value.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof LazyNumber))
+			return false;
+		return value.equals(((LazyNumber) obj).value);
+	}
+
+}
@@ -0,0 +1,653 @@
+package com.github.enerccio.gson.visitors;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.github.enerccio.gson.GsonProvider;
+import com.github.enerccio.gson.tree.TreeInfo;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Parallel Json Tree Visitor.
+ * <p>
+ * Visits fully deserialized tree like {@link JsonTreeVisitor}, but arrays and
+ * objects with more children than split threshold are split into
+ * {@link ForkJoinPool} tasks. Each task has its own path and its own
+ * collector created by {@link IJsonVisitorCollector#fork()}, which are joined
+ * back in document order, so collectors that append their results produce
+ * same results as sequential visit.
+ * <p>
+ * Visited tree must not be modified during the visit, therefore
+ * {@link IJsonElementExit#detach()} is not supported. Calling stop prevents
+ * any new callbacks from starting, callbacks already running in other tasks
+ * finish normally.
+ * <p>
+ * This class is thread safe once configured.
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+public class ParallelJsonTreeVisitor {
+
+	private static class DefaultPool {
+		private static final ForkJoinPool INSTANCE = new ForkJoinPool();
+	}
+
+	private final ForkJoinPool pool;
+	private Gson gson = GsonProvider.getDefaultGson();
+	private int splitThreshold = 512;
+	private int maxDepth = Integer.MAX_VALUE;
+
+	/**
+	 * Creates visitor running on shared pool with parallelism equal to number
+	 * of processors
+	 *
+	 * @since 1.2.0
+	 */
+	public ParallelJsonTreeVisitor() {
+		this(DefaultPool.INSTANCE);
+	}
+
+	/**
+	 * Creates visitor running on provided pool
+	 *
+	 * @param pool
+	 *            pool to run tasks in
+	 * @since 1.2.0
+	 */
+	public ParallelJsonTreeVisitor(ForkJoinPool pool) {
+		if (pool == null)
+			throw new NullPointerException("pool can't be null");
+		this.pool = pool;
+	}
+
+	/**
+	 * Override default gson
+	 *
+	 * @param gson
+	 * @return this visitor
+	 * @since 1.2.0
+	 * @see {@link GsonProvider#getDefaultGson()}
+	 */
+	public ParallelJsonTreeVisitor setGson(Gson gson) {
+		if (gson == null)
+			throw new NullPointerException("gson can't be null");
+		this.gson = gson;
+		return this;
+	}
+
+	/**
+	 * Sets maximum number of children of array or object that is visited by
+	 * single task. Larger containers are split.
+	 *
+	 * @param splitThreshold
+	 *            maximum number of children per task, default 512
+	 * @return this visitor
+	 * @since 1.2.0
+	 */
+	public ParallelJsonTreeVisitor setSplitThreshold(int splitThreshold) {
+		if (splitThreshold <= 0)
+			throw new IllegalArgumentException("split threshold must be positive");
+		this.splitThreshold = splitThreshold;
+		return this;
+	}
+
+	/**
+	 * Returns split threshold
+	 *
+	 * @return maximum number of children per task
+	 * @since 1.2.0
+	 */
+	public int getSplitThreshold() {
+		return splitThreshold;
+	}
+
+	/**
+	 * Sets maximum nesting depth of visited tree. Visiting deeper tree fails
+	 * with {@link IllegalArgumentException}.
+	 * <p>
+	 * Tree is visited without recursion, so depth is not limited by default.
+	 *
+	 * @param maxDepth
+	 *            maximum number of properties and indexes in path of any
+	 *            element
+	 * @return this visitor
+	 * @since 1.2.0
+	 */
+	public ParallelJsonTreeVisitor setMaxDepth(int maxDepth) {
+		if (maxDepth < 0)
+			throw new IllegalArgumentException("max depth can't be negative");
+		this.maxDepth = maxDepth;
+		return this;
+	}
+
+	/**
+	 * Returns maximum nesting depth of visited tree
+	 *
+	 * @return maximum depth
+	 * @since 1.2.0
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Visits the string provided with this collector
+	 *
+	 * @param json
+	 *            to visit
+	 * @param collector
+	 *            collector receiving events
+	 * @return result of the collector
+	 * @since 1.2.0
+	 */
+	public <R> R visit(String json, IJsonVisitorCollector<R> collector) {
+		return visit(gson.fromJson(json, JsonElement.class), collector);
+	}
+
+	/**
+	 * Visits the json element provided with this collector
+	 *
+	 * @param root
+	 *            tree to visit
+	 * @param collector
+	 *            collector receiving events
+	 * @return result of the collector
+	 * @since 1.2.0
+	 */
+	public <R> R visit(final JsonElement root, final IJsonVisitorCollector<R> collector) {
+		final AtomicBoolean stopped = new AtomicBoolean(false);
+		final int depth = maxDepth;
+		pool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				new Walker<R>(Collections.<TreeInfo> emptyList(), collector, stopped, depth).walk(root, null, -1);
+			}
+		});
+		return collector.getResult();
+	}
+
+	/**
+	 * Visits part of items of large array with its own collector
+	 */
+	private class RangeTask<R> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final JsonArray array;
+		private final int from;
+		private final int to;
+		private final List<TreeInfo> prefix;
+		private final IJsonVisitorCollector<R> collector;
+		private final AtomicBoolean stopped;
+		private final int maxDepth;
+
+		public RangeTask(JsonArray array, int from, int to, List<TreeInfo> prefix, IJsonVisitorCollector<R> collector,
+				AtomicBoolean stopped, int maxDepth) {
+			this.array = array;
+			this.from = from;
+			this.to = to;
+			this.prefix = prefix;
+			this.collector = collector;
+			this.stopped = stopped;
+			this.maxDepth = maxDepth;
+		}
+
+		@Override
+		protected void compute() {
+			if (stopped.get())
+				return;
+
+			if (to - from <= splitThreshold) {
+				new Walker<R>(prefix, collector, stopped, maxDepth).walkItems(array, from, to);
+				return;
+			}
+
+			int mid = (from + to) >>> 1;
+			IJsonVisitorCollector<R> left = collector.fork();
+			IJsonVisitorCollector<R> right = collector.fork();
+			invokeAll(new RangeTask<R>(array, from, mid, prefix, left, stopped, maxDepth),
+					new RangeTask<R>(array, mid, to, prefix, right, stopped, maxDepth));
+			collector.join(left);
+			collector.join(right);
+		}
+	}
+
+	/**
+	 * Visits chunk of properties of large object with its own collector
+	 */
+	private class ChunkTask<R> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Entry<String, JsonElement>[] properties;
+		private final List<TreeInfo> prefix;
+		private final IJsonVisitorCollector<R> collector;
+		private final AtomicBoolean stopped;
+		private final int maxDepth;
+
+		public ChunkTask(Entry<String, JsonElement>[] properties, List<TreeInfo> prefix,
+				IJsonVisitorCollector<R> collector, AtomicBoolean stopped, int maxDepth) {
+			this.properties = properties;
+			this.prefix = prefix;
+			this.collector = collector;
+			this.stopped = stopped;
+			this.maxDepth = maxDepth;
+		}
+
+		@Override
+		protected void compute() {
+			if (!stopped.get())
+				new Walker<R>(prefix, collector, stopped, maxDepth).walkProperties(Arrays.asList(properties).iterator());
+		}
+	}
+
+	/**
+	 * Open container or property of the walk
+	 */
+	private static class Frame {
+		private JsonElementType type;
+		private JsonElement element;
+		private String property;
+		private int arrayPosition;
+		/**
+		 * index of the array item being visited and end of visited items
+		 */
+		private int index;
+		private int end;
+		private boolean itemOpen;
+		private Iterator<Entry<String, JsonElement>> properties;
+		private Entry<String, JsonElement> entry;
+		private boolean valueVisited;
+		/**
+		 * part of container split into task, container itself is not entered
+		 * or ended
+		 */
+		private boolean range;
+	}
+
+	/**
+	 * Sequential visit of the part of the tree, holds path and state of
+	 * current element for the callbacks. Open containers are kept on explicit
+	 * stack, so depth of the tree is not limited by thread stack.
+	 */
+	private class Walker<R> {
+
+		private final ArrayList<TreeInfo> path;
+		private final Collection<TreeInfo> pathRO;
+		private final PathCache paths = new PathCache();
+		private final IJsonVisitorCollector<R> collector;
+		private final AtomicBoolean stopped;
+		private final int maxDepth;
+		private Frame[] frames = new Frame[16];
+		private int size = 0;
+
+		private JsonElementType type;
+		private JsonElement element;
+		private String property;
+		private int arrayPosition;
+		private boolean skip;
+
+		public Walker(List<TreeInfo> prefix, IJsonVisitorCollector<R> collector, AtomicBoolean stopped, int maxDepth) {
+			this.path = new ArrayList<TreeInfo>(prefix);
+			this.pathRO = Collections.unmodifiableList(path);
+			this.collector = collector;
+			this.stopped = stopped;
+			this.maxDepth = maxDepth;
+		}
+
+		private void setCurrent(JsonElementType type, JsonElement element, String property, int arrayPosition) {
+			this.type = type;
+			this.element = element;
+			this.property = property;
+			this.arrayPosition = arrayPosition;
+			this.skip = false;
+		}
+
+		private boolean start() {
+			if (stopped.get())
+				return false;
+			collector.onElementStart(enter);
+			return !skip && !stopped.get();
+		}
+
+		private void end() {
+			if (!stopped.get())
+				collector.onElementEnd(exit);
+		}
+
+		public void walk(JsonElement e, String property, int arrayPosition) {
+			enterElement(e, property, arrayPosition);
+			run();
+		}
+
+		public void walkItems(JsonArray array, int from, int to) {
+			Frame f = push(JsonElementType.ARRAY, array, null);
+			f.index = from - 1;
+			f.end = to;
+			f.range = true;
+			run();
+		}
+
+		public void walkProperties(Iterator<Entry<String, JsonElement>> properties) {
+			Frame f = push(JsonElementType.OBJECT, null, null);
+			f.properties = properties;
+			f.range = true;
+			run();
+		}
+
+		private void run() {
+			while (size > 0 && !stopped.get()) {
+				Frame f = frames[size - 1];
+
+				switch (f.type) {
+				case PROPERTY:
+					if (!f.valueVisited) {
+						f.valueVisited = true;
+						enterElement(f.entry.getValue(), f.property, -1);
+						break;
+					}
+					--size;
+					setCurrent(JsonElementType.PROPERTY, f.element, f.property, -1);
+					end();
+					path.remove(path.size() - 1);
+					break;
+
+				case OBJECT:
+					if (f.properties.hasNext()) {
+						enterProperty(f.properties.next());
+					} else {
+						endContainer(f);
+					}
+					break;
+
+				case ARRAY:
+					if (f.itemOpen) {
+						f.itemOpen = false;
+						path.remove(path.size() - 1);
+						if (stopped.get())
+							break;
+					}
+					if (++f.index < f.end) {
+						pushPath(TreeInfo.of(f.index));
+						f.itemOpen = true;
+						enterElement(f.element.getAsJsonArray().get(f.index), null, f.index);
+					} else {
+						endContainer(f);
+					}
+					break;
+
+				default:
+					throw new IllegalStateException("unexpected frame " + f.type);
+				}
+			}
+		}
+
+		private void enterElement(JsonElement e, String property, int arrayPosition) {
+			if (e == null)
+				e = JsonNull.INSTANCE;
+			JsonElementType type = typeOf(e);
+
+			setCurrent(type, e, property, arrayPosition);
+			if (!start())
+				return;
+
+			if (type == JsonElementType.OBJECT) {
+				Set<Entry<String, JsonElement>> properties = e.getAsJsonObject().entrySet();
+				if (properties.size() <= splitThreshold) {
+					Frame f = push(type, e, property);
+					f.arrayPosition = arrayPosition;
+					f.properties = properties.iterator();
+					return;
+				}
+				split(properties);
+			} else if (type == JsonElementType.ARRAY) {
+				JsonArray a = e.getAsJsonArray();
+				if (a.size() <= splitThreshold) {
+					Frame f = push(type, e, property);
+					f.arrayPosition = arrayPosition;
+					f.end = a.size();
+					return;
+				}
+				new RangeTask<R>(a, 0, a.size(), new ArrayList<TreeInfo>(path), collector, stopped, maxDepth).invoke();
+			}
+
+			setCurrent(type, e, property, arrayPosition);
+			end();
+		}
+
+		/**
+		 * Splits properties of large object into tasks while iterating them
+		 * once, tasks are started as soon as their chunk is read
+		 */
+		private void split(Set<Entry<String, JsonElement>> properties) {
+			List<TreeInfo> prefix = new ArrayList<TreeInfo>(path);
+			List<ChunkTask<R>> tasks = new ArrayList<ChunkTask<R>>();
+			Iterator<Entry<String, JsonElement>> it = properties.iterator();
+			int remaining = properties.size();
+			while (remaining > 0 && !stopped.get()) {
+				@SuppressWarnings("unchecked")
+				Entry<String, JsonElement>[] chunk = new Entry[Math.min(splitThreshold, remaining)];
+				for (int i = 0; i < chunk.length; i++) {
+					chunk[i] = it.next();
+				}
+				remaining -= chunk.length;
+				ChunkTask<R> task = new ChunkTask<R>(chunk, prefix, collector.fork(), stopped, maxDepth);
+				task.fork();
+				tasks.add(task);
+			}
+			for (ChunkTask<R> task : tasks) {
+				task.join();
+				collector.join(task.collector);
+			}
+		}
+
+		private void enterProperty(Entry<String, JsonElement> entry) {
+			pushPath(TreeInfo.of(entry.getKey()));
+			setCurrent(JsonElementType.PROPERTY, entry.getValue(), entry.getKey(), -1);
+			if (!start()) {
+				path.remove(path.size() - 1);
+				return;
+			}
+			push(JsonElementType.PROPERTY, entry.getValue(), entry.getKey()).entry = entry;
+		}
+
+		private void endContainer(Frame f) {
+			--size;
+			if (!f.range) {
+				setCurrent(f.type, f.element, f.property, f.arrayPosition);
+				end();
+			}
+		}
+
+		private void pushPath(TreeInfo info) {
+			if (path.size() >= maxDepth)
+				throw new IllegalArgumentException("JSON is nested deeper than " + maxDepth);
+			path.add(info);
+		}
+
+		private Frame push(JsonElementType type, JsonElement element, String property) {
+			if (size == frames.length) {
+				frames = Arrays.copyOf(frames, size * 2);
+			}
+			Frame f = frames[size];
+			if (f == null) {
+				f = frames[size] = new Frame();
+			}
+			++size;
+			f.type = type;
+			f.element = element;
+			f.property = property;
+			f.arrayPosition = -1;
+			f.index = -1;
+			f.end = 0;
+			f.itemOpen = false;
+			f.properties = null;
+			f.entry = null;
+			f.valueVisited = false;
+			f.range = false;
+			return f;
+		}
+
+		private final IJsonElementEntry enter = new IJsonElementEntry() {
+
+			@Override
+			public JsonElementType getType() {
+				return type;
+			}
+
+			@Override
+			public Collection<TreeInfo> getTree() {
+				return pathRO;
+			}
+
+			@Override
+			public TreeInfo getLastTreeInfo() {
+				return path.isEmpty() ? null : path.get(path.size() - 1);
+			}
+
+			@Override
+			public String getPath() {
+				return paths.get(pathRO);
+			}
+
+			@Override
+			public void appendPath(Appendable out) throws IOException {
+				TreeInfo.appendPath(pathRO, out);
+			}
+
+			@Override
+			public void stop() {
+				stopped.set(true);
+			}
+
+			@Override
+			public void skip() {
+				skip = true;
+			}
+
+			@Override
+			public void retain() {
+				// tree is always fully built
+			}
+		};
+
+		private final IJsonElementExit exit = new IJsonElementExit() {
+
+			@Override
+			public JsonElementType getType() {
+				return type;
+			}
+
+			@Override
+			public Collection<TreeInfo> getTree() {
+				return pathRO;
+			}
+
+			@Override
+			public TreeInfo getLastTreeInfo() {
+				return path.isEmpty() ? null : path.get(path.size() - 1);
+			}
+
+			@Override
+			public String getPath() {
+				return paths.get(pathRO);
+			}
+
+			@Override
+			public void appendPath(Appendable out) throws IOException {
+				TreeInfo.appendPath(pathRO, out);
+			}
+
+			@Override
+			public void stop() {
+				stopped.set(true);
+			}
+
+			@Override
+			public JsonElement getElement() {
+				if (type == JsonElementType.PROPERTY) {
+					JsonObject wrap = new JsonObject();
+					wrap.add(property, element);
+					return wrap;
+				}
+				return element;
+			}
+
+			@Override
+			public JsonElement getValue() {
+				return element;
+			}
+
+			@Override
+			public long getAsLong() {
+				if (type != JsonElementType.NUMBER)
+					throw new IllegalStateException("element is not a number");
+				return element.getAsLong();
+			}
+
+			@Override
+			public double getAsDouble() {
+				if (type != JsonElementType.NUMBER)
+					throw new IllegalStateException("element is not a number");
+				return element.getAsDouble();
+			}
+
+			@Override
+			public String getPropertyName() {
+				return property;
+			}
+
+			@Override
+			public int getArrayPosition() {
+				return arrayPosition;
+			}
+
+			@Override
+			public <X> X getAsObject(Class<X> clazz) {
+				return gson.fromJson(getElement(), clazz);
+			}
+
+			@Override
+			public <X> X getAsObject(Type type) {
+				return gson.fromJson(getElement(), type);
+			}
+
+			@Override
+			public JsonElement detach() {
+				throw new UnsupportedOperationException("parallel visitor does not support detach");
+			}
+		};
+	}
+
+	private static JsonElementType typeOf(JsonElement e) {
+		if (e.isJsonNull())
+			return JsonElementType.NULL;
+		if (e.isJsonObject())
+			return JsonElementType.OBJECT;
+		if (e.isJsonArray())
+			return JsonElementType.ARRAY;
+		JsonPrimitive p = e.getAsJsonPrimitive();
+		if (p.isBoolean())
+			return JsonElementType.BOOLEAN;
+		if (p.isNumber())
+			return JsonElementType.NUMBER;
+		return JsonElementType.STRING;
+	}
+}
@@ -0,0 +1,53 @@
+package com.github.enerccio.gson.visitors;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import com.github.enerccio.gson.tree.TreeInfo;
+
+/**
+ * Caches rendered paths of the visit.
+ * <p>
+ * Path of each depth is rendered once from the path of its parent and reused
+ * as long as the prefix of the visited path stays the same, so repeated
+ * {@link IVisitorCallbackBase#getPath()} calls of nested elements do not render
+ * whole path again.
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+class PathCache {
+
+	private TreeInfo[] infos = new TreeInfo[16];
+	private String[] rendered = new String[16];
+	private int valid = 0;
+
+	/**
+	 * Returns rendered path, same as {@link TreeInfo#toPath(Collection)}
+	 *
+	 * @param path
+	 * @return path
+	 */
+	public String get(Collection<TreeInfo> path) {
+		String prefix = "";
+		int depth = 0;
+		for (TreeInfo nfo : path) {
+			if (depth < valid && infos[depth] == nfo) {
+				prefix = rendered[depth++];
+				continue;
+			}
+
+			if (depth == infos.length) {
+				infos = Arrays.copyOf(infos, depth * 2);
+				rendered = Arrays.copyOf(rendered, depth * 2);
+			}
+			String element = nfo.getType() == TreeInfo.TreeInfoType.INDEX ? "@" + nfo.getIndex() : nfo.getProperty();
+			prefix = depth == 0 ? element : prefix + "." + element;
+			infos[depth] = nfo;
+			rendered[depth] = prefix;
+			valid = ++depth;
+		}
+		return prefix;
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.github.enerccio.gson.visitors;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.github.enerccio.gson.tree.TreeInfo;
+
+/**
+ * Mutable path of {@link TreeInfo}s shared by whole visit.
+ * <p>
+ * Elements only hold their depth and see the path via read-only prefix views,
+ * so entering element costs O(1) instead of copying whole path.
+ *
+ * @author pvan
+ * @since 1.2.0
+ */
+class TreePath {
+
+	private TreeInfo[] elements = new TreeInfo[16];
+	private int size = 0;
+
+	/**
+	 * Appends tree info to the end of the path
+	 *
+	 * @param info
+	 */
+	public void push(TreeInfo info) {
+		if (size == elements.length) {
+			TreeInfo[] grown = new TreeInfo[size * 2];
+			System.arraycopy(elements, 0, grown, 0, size);
+			elements = grown;
+		}
+		elements[size++] = info;
+	}
+
+	/**
+	 * Shortens the path to provided depth
+	 *
+	 * @param depth
+	 */
+	public void truncate(int depth) {
+		while (size > depth) {
+			elements[--size] = null;
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public TreeInfo get(int i) {
+		return elements[i];
+	}
+
+	/**
+	 * Creates read-only view of this path.
+	 * <p>
+	 * View is live and only valid while path is not changed below depth of the
+	 * view.
+	 *
+	 * @param depth
+	 *            how many elements of the path are visible
+	 * @return view
+	 */
+	public View view(int depth) {
+		View view = new View();
+		view.setDepth(depth);
+		return view;
+	}
+
+	/**
+	 * Read-only prefix view of the path, reusable by changing its depth.
+	 */
+	class View extends AbstractCollection<TreeInfo> {
+
+		private int depth;
+
+		public void setDepth(int depth) {
+			this.depth = depth;
+		}
+
+		@Override
+		public Iterator<TreeInfo> iterator() {
+			return new Iterator<TreeInfo>() {
+
+				private int i = 0;
+
+				@Override
+				public boolean hasNext() {
+					return i < depth;
+				}
+
+				@Override
+				public TreeInfo next() {
+					if (i >= depth)
+						throw new NoSuchElementException();
+					return elements[i++];
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return depth;
+		}
+
+		public TreeInfo last() {
+			return depth == 0 ? null : elements[depth - 1];
+		}
+
+	}
+}
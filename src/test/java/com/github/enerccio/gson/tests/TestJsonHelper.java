@@ -1,13 +1,23 @@
 package com.github.enerccio.gson.tests;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import com.github.enerccio.gson.GsonProvider;
 import com.github.enerccio.gson.JsonHelper;
+import com.github.enerccio.gson.JsonHelper.IJsonMatchCallback;
 import com.github.enerccio.gson.JsonHelper.IJsonPredicate;
 import com.github.enerccio.gson.builders.JsonBuilder;
+import com.github.enerccio.gson.builders.ValueBuilder;
 import com.github.enerccio.gson.tree.JsonPatternMatcher;
+import com.github.enerccio.gson.tree.JsonPatternSet;
+import com.github.enerccio.gson.visitors.IJsonElementExit;
+import com.github.enerccio.gson.visitors.JsonStreamVisitor;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
@@ -444,7 +454,132 @@ public class TestJsonHelper extends TestCase {
 		Assert.assertEquals(el1, el5);
 		Assert.assertEquals(el1, el6);
 	}
-	
+
+	public void testGetAllPatternSet() throws ParseException {
+		String value;
+
+		// @formatter:off
+		value = new JsonBuilder()
+			.object()
+				.property("a").object()
+					.property("b").array()
+						.string("x")
+						.object()
+							.property("d").string("y")
+						.end()
+					.end()
+					.property("d").number(1)
+				.end()
+				.property("d").bool(true)
+			.end()
+			.toJson();
+		// @formatter:on
+
+		String[] patterns = new String[] { "**.d", "a.b.@1", "a.*.d", "a", "x.y", "**.@1" };
+		JsonPatternSet set = new JsonPatternSet(patterns);
+		List<List<JsonElement>> all = JsonHelper.getAll(value, set);
+		Assert.assertEquals(patterns.length, all.size());
+		for (int i = 0; i < patterns.length; i++) {
+			Assert.assertEquals(JsonHelper.getAll(value, patterns[i]), all.get(i));
+		}
+
+		final List<List<JsonElement>> streamed = new ArrayList<List<JsonElement>>();
+		for (int i = 0; i < patterns.length; i++) {
+			streamed.add(new ArrayList<JsonElement>());
+		}
+		new JsonStreamVisitor().setLightweight(true).visit(value,
+				JsonHelper.matchListener(set, new IJsonMatchCallback() {
+
+					@Override
+					public void onMatch(int patternId, IJsonElementExit exit) {
+						streamed.get(patternId).add(exit.getElement());
+					}
+				}));
+		Assert.assertEquals(all, streamed);
+	}
+
+	public void testStreaming() throws ParseException, IOException {
+		String value;
+
+		// @formatter:off
+		value = new JsonBuilder()
+			.object()
+				.property("a").array()
+					.string("foo")
+					.object()
+						.property("bar").number(32)
+					.end()
+					.object()
+						.property("bar").string("qux")
+					.end()
+				.end()
+				.property("bar").bool(true)
+			.end()
+			.toJson();
+		// @formatter:on
+
+		Assert.assertEquals(JsonHelper.getAll(value, "**.bar"),
+				JsonHelper.getAll(new StringReader(value), new JsonPatternMatcher("**.bar")));
+		Assert.assertEquals(JsonHelper.getAll(value, "a"),
+				JsonHelper.getAll(new StringReader(value), new JsonPatternMatcher("a")));
+		Assert.assertEquals(JsonHelper.getN(value, "**.bar", 2), JsonHelper.getN(new StringReader(value), "**.bar", 2));
+		Assert.assertEquals(JsonHelper.getFirst(value, "a.@2"), JsonHelper.getFirst(new StringReader(value), "a.@2"));
+		Assert.assertNull(JsonHelper.getFirst(new StringReader(value), "x"));
+
+		// reading stops once the header is found, the rest of the input is
+		// never needed
+		Reader huge = new Reader() {
+
+			private final String head = "{\"header\":{\"id\":7},\"data\":[";
+			private int position = 0;
+
+			@Override
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				if (position > 1024 * 1024)
+					throw new IOException("read too far");
+				for (int i = 0; i < len; i++, position++) {
+					cbuf[off + i] = position < head.length() ? head.charAt(position) : (position % 2 == 0 ? '1' : ',');
+				}
+				return len;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		JsonElement e = JsonHelper.getFirst(huge, "header.id");
+		Assert.assertEquals(7, e.getAsInt());
+	}
+
+	public void testGetAllParallel() throws ParseException {
+		ValueBuilder builder = new JsonBuilder().array();
+		for (int i = 0; i < 5000; i++) {
+			builder = builder.object().number("id", i).property("v").object().number("id", -i).end().end();
+		}
+		JsonElement e = builder.end().toJsonTree();
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			List<JsonElement> parallel = JsonHelper.getAll(e, new JsonPatternMatcher("*.v.id"), new IJsonPredicate() {
+
+				@Override
+				public boolean test(JsonElement e) {
+					return e.getAsInt() % 2 == 0;
+				}
+			}, pool);
+			Assert.assertEquals(2500, parallel.size());
+			Assert.assertEquals(JsonHelper.getAll(e, "*.v.id", new IJsonPredicate() {
+
+				@Override
+				public boolean test(JsonElement e) {
+					return e.getAsInt() % 2 == 0;
+				}
+			}), parallel);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
 	public void testArraySet() {
 		Gson gson = new GsonBuilder().create();
 		JsonElement e;
@@ -0,0 +1,112 @@
+package com.github.enerccio.gson.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.github.enerccio.gson.Utf8Reader;
+import com.github.enerccio.gson.Utf8Writer;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class TestUtf8 extends TestCase {
+
+	private static final String TEXT = "ascii áč € 😀 end";
+
+	public TestUtf8(String testName) {
+		super(testName);
+	}
+
+	public static Test suite() {
+		return new TestSuite(TestUtf8.class);
+	}
+
+	private static String read(Reader r, int chunk) throws IOException {
+		StringBuilder b = new StringBuilder();
+		char[] buffer = new char[chunk];
+		int read;
+		while ((read = r.read(buffer)) != -1) {
+			b.append(buffer, 0, read);
+		}
+		return b.toString();
+	}
+
+	public void testWriter() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 2000; i++) {
+			text.append(TEXT);
+		}
+		byte[] expected = text.toString().getBytes("UTF-8");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Utf8Writer w = new Utf8Writer(out);
+		w.write(text.toString());
+		w.flush();
+		Assert.assertTrue(Arrays.equals(expected, out.toByteArray()));
+
+		// surrogate pair split between writes
+		out.reset();
+		w = new Utf8Writer(out);
+		for (int i = 0; i < text.length(); i++) {
+			w.write(text.charAt(i));
+		}
+		w.close();
+		Assert.assertTrue(Arrays.equals(expected, out.toByteArray()));
+
+		out.reset();
+		w = new Utf8Writer(out);
+		w.write("a\ud83db\ude00");
+		w.write('\ud83d');
+		w.close();
+		Assert.assertEquals("a?b??", new String(out.toByteArray(), "UTF-8"));
+
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		w = new Utf8Writer(buffer);
+		w.write("x");
+		w.writeEncoded(new byte[] { (byte) 0xc4, (byte) 0x8d }, 0, 2);
+		w.flush();
+		Assert.assertEquals("xč", new String(buffer.array(), 0, buffer.position(), "UTF-8"));
+	}
+
+	public void testReader() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 2000; i++) {
+			text.append(TEXT);
+		}
+		final byte[] bytes = text.toString().getBytes("UTF-8");
+
+		Assert.assertEquals(text.toString(), read(new Utf8Reader(ByteBuffer.wrap(bytes)), 1024));
+		Assert.assertEquals(text.toString(), read(new Utf8Reader(new ByteArrayInputStream(bytes)), 1));
+
+		// sequences split between reads of the stream
+		InputStream slow = new InputStream() {
+			int position = 0;
+
+			@Override
+			public int read() throws IOException {
+				return position < bytes.length ? bytes[position++] & 0xff : -1;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				if (position == bytes.length)
+					return -1;
+				b[off] = bytes[position++];
+				return 1;
+			}
+		};
+		Assert.assertEquals(text.toString(), read(new Utf8Reader(slow), 7));
+
+		byte[] malformed = new byte[] { 'a', (byte) 0xc4, 'b', (byte) 0xff, (byte) 0xed, (byte) 0xa0, (byte) 0x80,
+				(byte) 0xe2, (byte) 0x82 };
+		Assert.assertEquals("a\ufffdb\ufffd\ufffd\ufffd\ufffd\ufffd",
+				read(new Utf8Reader(ByteBuffer.wrap(malformed)), 16));
+	}
+}
@@ -1,6 +1,21 @@
 package com.github.enerccio.gson.tests.builders;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.github.enerccio.gson.GsonProvider;
+import com.github.enerccio.gson.JsonFormat;
 import com.github.enerccio.gson.builders.JsonBuilder;
+import com.github.enerccio.gson.builders.JsonTemplate;
+import com.github.enerccio.gson.builders.StreamingJsonBuilder;
+import com.github.enerccio.gson.builders.TemplateBuilder;
+import com.github.enerccio.gson.builders.ValueBuilder;
 import com.github.enerccio.gson.builders.functional.IArrayBuilder;
 import com.github.enerccio.gson.builders.functional.IArrayFacade;
 import com.github.enerccio.gson.builders.functional.IObjectBuilder;
@@ -9,6 +24,7 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 
@@ -735,4 +751,374 @@ public class TestBuilders extends TestCase {
 
 		Assert.assertEquals(value1, value2);
 	}
+
+	public void testStreamingBuilder() throws IOException {
+		Gson gson = new GsonBuilder().create();
+
+		String value1, value2;
+
+		// @formatter:off
+		value1 = new JsonBuilder()
+				.setGson(gson)
+				.object()
+					.property("foo").string("b<a>r")
+					.property("arr").array()
+						.number(1)
+						.object()
+							.property("x").bool(true)
+							.property("n").nil()
+						.end()
+						.nil()
+					.end()
+					.property("c").character('c')
+					.element("e", new JsonPrimitive(3.5))
+				.end()
+				.toJson();
+
+		value2 = new StreamingJsonBuilder()
+				.object()
+					.property("foo").string("b<a>r")
+					.property("arr").array()
+						.number(1)
+						.object()
+							.property("x").bool(true)
+							.property("n").nil()
+						.end()
+						.nil()
+					.end()
+					.property("c").character('c')
+					.element("e", new JsonPrimitive(3.5))
+				.end()
+				.toJson();
+		// @formatter:on
+
+		Assert.assertEquals(value1, value2);
+
+		IObjectBuilder functional = new IObjectBuilder() {
+
+			@Override
+			public void build(IObjectFacade object) {
+				object.put("foo", "bar");
+				object.putArray("arr", new IArrayBuilder() {
+
+					@Override
+					public void build(IArrayFacade array) {
+						array.add(1);
+						array.addObject(new IObjectBuilder() {
+
+							@Override
+							public void build(IObjectFacade object) {
+								object.put("x", true);
+							}
+						});
+						array.add(new JsonArray());
+					}
+				});
+			}
+		};
+
+		value1 = new JsonBuilder().setGson(gson).object(functional).toJson();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		StreamingJsonBuilder builder = new StreamingJsonBuilder(out);
+		builder.object(functional);
+		Assert.assertTrue(builder.isComplete());
+		builder.close();
+		Assert.assertEquals(value1, new String(out.toByteArray(), "UTF-8"));
+
+		Assert.assertEquals("\"x\"", new StreamingJsonBuilder().string("x").toJson());
+
+		// inserted elements are written same as gson of the format writes them
+		JsonObject inserted = new JsonObject();
+		inserted.add("n", JsonNull.INSTANCE);
+		inserted.addProperty("s", "<\u2028>");
+		Assert.assertEquals(JsonFormat.COMPACT.getGson().toJson(inserted),
+				new StreamingJsonBuilder().element(inserted).toJson());
+		Assert.assertEquals(JsonFormat.COMPACT_UNESCAPED.getGson().toJson(inserted),
+				new StreamingJsonBuilder(JsonFormat.COMPACT_UNESCAPED).element(inserted).toJson());
+		Assert.assertEquals("null", new StreamingJsonBuilder().element(null).toJson());
+
+		try {
+			new StreamingJsonBuilder().object().toJson();
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		try {
+			new StreamingJsonBuilder().array().property("a");
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		try {
+			new StreamingJsonBuilder().array().end().array();
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	public void testFormats() {
+		JsonBuilder builder = new JsonBuilder();
+		// @formatter:off
+		builder.object()
+				.property("a").string("<b>")
+				.property("c").array().number(1).number(2).end()
+			.end();
+		// @formatter:on
+
+		Assert.assertEquals("{\"a\":\"\\u003cb\\u003e\",\"c\":[1,2]}", builder.toJson(JsonFormat.COMPACT));
+		Assert.assertEquals("{\"a\":\"<b>\",\"c\":[1,2]}", builder.toJson(JsonFormat.COMPACT_UNESCAPED));
+		Assert.assertEquals(builder.toJson(), builder.toJson(JsonFormat.PRETTY));
+		Assert.assertSame(GsonProvider.sharedGson, JsonFormat.PRETTY.getGson());
+
+		try {
+			GsonProvider.setDefaultFormat(JsonFormat.COMPACT);
+			Assert.assertEquals(builder.toJson(JsonFormat.COMPACT), builder.toJson());
+		} finally {
+			GsonProvider.setDefaultFormat(JsonFormat.PRETTY);
+		}
+
+		for (JsonFormat format : JsonFormat.values()) {
+			// @formatter:off
+			String streamed = new StreamingJsonBuilder(format)
+					.object()
+						.property("a").string("<b>")
+						.property("c").array().number(1).number(2).end()
+					.end()
+					.toJson(format);
+			// @formatter:on
+			Assert.assertEquals(builder.toJson(format), streamed);
+		}
+
+		try {
+			new StreamingJsonBuilder().string("a").toJson(JsonFormat.PRETTY);
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	public void testReusableBuilder() {
+		JsonBuilder builder = new JsonBuilder().setReusable(true);
+		Assert.assertTrue(builder.isReusable());
+
+		for (int i = 0; i < 3; i++) {
+			builder.reset();
+			// @formatter:off
+			builder.object()
+					.property("id").number(i)
+					.property("items").array()
+						.object().property("a").number(1).end()
+						.object().property("b").array().string("x").end().end()
+					.end()
+					.object("nested", new IObjectBuilder() {
+
+						public void build(IObjectFacade object) {
+							object.putArray("first", new IArrayBuilder() {
+
+								public void build(IArrayFacade array) {
+									array.add(1);
+								}
+							});
+							object.putArray("second", new IArrayBuilder() {
+
+								public void build(IArrayFacade array) {
+									array.add(2);
+								}
+							});
+						}
+					})
+				.end();
+			// @formatter:on
+			Assert.assertEquals("{\"id\":" + i
+					+ ",\"items\":[{\"a\":1},{\"b\":[\"x\"]}],\"nested\":{\"first\":[1],\"second\":[2]}}",
+					builder.toJson(JsonFormat.COMPACT));
+		}
+
+		ValueBuilder array = builder.reset().array();
+		ValueBuilder first = array.object();
+		first.end();
+		Assert.assertSame(first, array.object());
+
+		JsonBuilder fresh = new JsonBuilder();
+		ValueBuilder freshArray = fresh.array();
+		ValueBuilder freshFirst = freshArray.object();
+		freshFirst.end();
+		Assert.assertNotSame(freshFirst, freshArray.object());
+	}
+
+	public void testTemplate() {
+		// @formatter:off
+		JsonTemplate template = new TemplateBuilder()
+				.object()
+					.property("id").slot("id")
+					.property("status").string("ok")
+					.property("items").array().slot("first").number(2).end()
+					.slot("name", "name")
+				.end()
+				.compile();
+		// @formatter:on
+		Assert.assertEquals(Arrays.asList("id", "first", "name"), template.getSlots());
+
+		Map<String, Object> values = new HashMap<String, Object>();
+		values.put("id", 7);
+		values.put("first", null);
+		values.put("name", "<\"quoted\"\n\u2028>");
+		Assert.assertEquals("{\"id\":7,\"status\":\"ok\",\"items\":[null,2],\"name\":\"\\u003c\\\"quoted\\\"\\n\\u2028\\u003e\"}",
+				template.render(values));
+
+		JsonObject nested = new JsonObject();
+		nested.addProperty("a", 1);
+		values.put("first", nested);
+		values.put("name", 'c');
+		Assert.assertEquals("{\"id\":7,\"status\":\"ok\",\"items\":[{\"a\":1},2],\"name\":\"c\"}",
+				template.render(values));
+
+		values.remove("id");
+		try {
+			template.render(values);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		for (final JsonFormat format : JsonFormat.values()) {
+			JsonTemplate functional = JsonTemplate.compile(new IObjectBuilder() {
+
+				public void build(IObjectFacade object) {
+					JsonTemplate.putSlot(object, "text", "text");
+					object.putArray("list", new IArrayBuilder() {
+
+						public void build(IArrayFacade array) {
+							array.add(1);
+							JsonTemplate.addSlot(array, "number");
+						}
+					});
+				}
+			}, format);
+			values.put("text", "a<b");
+			values.put("number", 1.5);
+			// @formatter:off
+			String built = new JsonBuilder()
+					.object()
+						.property("text").string("a<b")
+						.property("list").array().number(1).number(1.5).end()
+					.end()
+					.toJson(format);
+			// @formatter:on
+			Assert.assertEquals(built, functional.render(values));
+		}
+
+		try {
+			JsonTemplate.putSlot(new StreamingJsonBuilder(), "a", "a");
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		// template builder itself does not produce json
+		TemplateBuilder builder = new TemplateBuilder().object().slot("a", "a").slot("b", "b").end();
+		try {
+			builder.toJson();
+			Assert.fail();
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			builder.toJson(JsonFormat.COMPACT);
+			Assert.fail();
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			builder.toJson(new ByteArrayOutputStream(), JsonFormat.COMPACT);
+			Assert.fail();
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		Assert.assertEquals("{\"a\":1,\"b\":2}", builder.compile().render(map("a", 1, "b", 2)));
+
+		for (Number invalid : new Number[] { Double.NaN, Double.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY }) {
+			try {
+				builder.compile().render(map("a", invalid, "b", 2));
+				Assert.fail();
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	private static Map<String, Object> map(Object... keysAndValues) {
+		Map<String, Object> values = new HashMap<String, Object>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			values.put((String) keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return values;
+	}
+
+	public void testTemplateEscaping() {
+		StringBuilder text = new StringBuilder();
+		for (char c = 0; c < 128; c++) {
+			text.append(c);
+		}
+		text.append("\u2028\u2029\u00e1\u20ac\ud83d\ude00");
+		for (JsonFormat format : JsonFormat.values()) {
+			JsonTemplate template = new TemplateBuilder(format).object().slot("text", "text").end().compile();
+			String expected = new JsonBuilder().object().property("text").string(text.toString()).end()
+					.toJson(format);
+			Assert.assertEquals(format.name(), expected, template.render(map("text", text.toString())));
+		}
+	}
+
+	public void testByteOutput() throws IOException {
+		JsonBuilder builder = new JsonBuilder();
+		// @formatter:off
+		builder.object()
+				.property("ascii").string("text")
+				.property("unicode").string("\u010d\u20ac\ud83d\ude00")
+			.end();
+		// @formatter:on
+		String json = builder.toJson(JsonFormat.COMPACT);
+		byte[] expected = json.getBytes("UTF-8");
+
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		builder.toJson(stream, JsonFormat.COMPACT);
+		Assert.assertTrue(Arrays.equals(expected, stream.toByteArray()));
+
+		stream.reset();
+		builder.toJson(Channels.newChannel(stream), JsonFormat.COMPACT);
+		Assert.assertTrue(Arrays.equals(expected, stream.toByteArray()));
+
+		ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+		builder.toJson(buffer, JsonFormat.COMPACT);
+		Assert.assertTrue(Arrays.equals(expected, buffer.array()));
+
+		try {
+			builder.toJson(ByteBuffer.allocate(4), JsonFormat.COMPACT);
+			Assert.fail();
+		} catch (BufferOverflowException e) {
+			// expected
+		}
+
+		buffer = ByteBuffer.allocate(expected.length);
+		StreamingJsonBuilder streaming = new StreamingJsonBuilder(buffer);
+		// @formatter:off
+		streaming.object()
+				.property("ascii").string("text")
+				.property("unicode").string("\u010d\u20ac\ud83d\ude00")
+			.end();
+		// @formatter:on
+		streaming.flush();
+		Assert.assertTrue(Arrays.equals(expected, buffer.array()));
+
+		JsonTemplate template = new TemplateBuilder().object().slot("ascii", "a").slot("unicode", "u").end().compile();
+		Map<String, Object> values = new HashMap<String, Object>();
+		values.put("a", "text");
+		values.put("u", "\u010d\u20ac\ud83d\ude00");
+		stream.reset();
+		template.render(values, stream);
+		Assert.assertTrue(Arrays.equals(expected, stream.toByteArray()));
+	}
 }
@@ -2,8 +2,12 @@ package com.github.enerccio.gson.tests.tree;
 
 import java.text.ParseException;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.github.enerccio.gson.tree.JsonPatternMatcher;
+import com.github.enerccio.gson.tree.JsonPatternMatcher.MatchState;
+import com.github.enerccio.gson.tree.JsonPatternSet;
+import com.github.enerccio.gson.tree.LruJsonPatternCache;
 import com.github.enerccio.gson.tree.TreeInfo;
 
 import junit.framework.Assert;
@@ -213,6 +217,237 @@ public class TestTree extends TestCase {
 		testMatcher(matcher, true, pfoopqux);
 	}
 
+	public void testCanMatchSubtree() throws ParseException {
+		JsonPatternMatcher matcher;
+
+		matcher = new JsonPatternMatcher("data.@0.items.*.id");
+		testSubtree(matcher, true);
+		testSubtree(matcher, true, new TreeInfo("data"));
+		testSubtree(matcher, true, new TreeInfo("data"), new TreeInfo(0), new TreeInfo("items"));
+		testSubtree(matcher, true, new TreeInfo("data"), new TreeInfo(0), new TreeInfo("items"), new TreeInfo(3),
+				new TreeInfo("id"), new TreeInfo("x"));
+		testSubtree(matcher, false, new TreeInfo("meta"));
+		testSubtree(matcher, false, new TreeInfo("data"), new TreeInfo(1));
+		testSubtree(matcher, false, new TreeInfo("data"), new TreeInfo(0), new TreeInfo("other"));
+
+		matcher = new JsonPatternMatcher("**.id");
+		testSubtree(matcher, true, new TreeInfo("a"), new TreeInfo(0), new TreeInfo("b"));
+
+		matcher = new JsonPatternMatcher("");
+		testSubtree(matcher, true, new TreeInfo("a"));
+	}
+
+	public void testBacktracking() throws ParseException {
+		JsonPatternMatcher matcher;
+
+		matcher = new JsonPatternMatcher("**.a.b");
+		testMatcher(matcher, true, new TreeInfo("a"), new TreeInfo("a"), new TreeInfo("b"));
+		testMatcher(matcher, true, new TreeInfo("x"), new TreeInfo("a"), new TreeInfo("a"), new TreeInfo("b"));
+		testMatcher(matcher, false, new TreeInfo("a"), new TreeInfo("x"), new TreeInfo("b"));
+
+		matcher = new JsonPatternMatcher("*.a");
+		testMatcher(matcher, true, new TreeInfo("a"));
+		testMatcher(matcher, true, new TreeInfo("x"), new TreeInfo("a"));
+		testMatcher(matcher, false, new TreeInfo("x"), new TreeInfo("y"), new TreeInfo("a"));
+	}
+
+	public void testMatchState() throws ParseException {
+		JsonPatternMatcher matcher = new JsonPatternMatcher("foo.**.qux");
+		MatchState state = matcher.newMatchState();
+
+		Assert.assertFalse(state.matches());
+		state.push(new TreeInfo("foo"));
+		Assert.assertFalse(state.matches());
+		Assert.assertTrue(state.canMatchSubtree());
+		state.push(new TreeInfo("bar"));
+		state.push(new TreeInfo("qux"));
+		Assert.assertTrue(state.matches());
+		Assert.assertEquals(3, state.getDepth());
+		state.pop();
+		Assert.assertFalse(state.matches());
+		state.sync(2, new TreeInfo("qux"));
+		Assert.assertTrue(state.matches());
+		state.sync(1, new TreeInfo("baz"));
+		Assert.assertFalse(state.matches());
+		Assert.assertFalse(state.canMatchSubtree());
+		state.reset();
+		Assert.assertEquals(0, state.getDepth());
+
+		try {
+			state.sync(2, new TreeInfo("foo"));
+			throw new AssertionError();
+		} catch (IllegalStateException e) {
+			e.getMessage();
+		}
+	}
+
+	public void testPatternSet() throws ParseException {
+		String[] patterns = new String[] { "foo", "foo.bar", "foo.*.qux", "**.qux", "@0", "foo.**.qux", "", "x.y" };
+		JsonPatternSet set = new JsonPatternSet(patterns);
+
+		TreeInfo[][] paths = new TreeInfo[][] { {}, { new TreeInfo(0) }, { new TreeInfo("foo") },
+				{ new TreeInfo("foo"), new TreeInfo(1) }, { new TreeInfo("foo"), new TreeInfo("bar") },
+				{ new TreeInfo("foo"), new TreeInfo("bar"), new TreeInfo("qux") },
+				{ new TreeInfo("foo"), new TreeInfo("qux") }, { new TreeInfo("x"), new TreeInfo("qux") } };
+
+		for (TreeInfo[] path : paths) {
+			int[] matches = set.matches(Arrays.asList(path));
+			Arrays.sort(matches);
+			int count = 0;
+			for (int i = 0; i < patterns.length; i++) {
+				boolean expected = new JsonPatternMatcher(patterns[i]).matches(Arrays.asList(path));
+				Assert.assertEquals(expected, Arrays.binarySearch(matches, i) >= 0);
+				if (expected)
+					++count;
+			}
+			Assert.assertEquals(count, matches.length);
+		}
+
+		JsonPatternSet.MatchState state = new JsonPatternSet("a.b", "c").newMatchState();
+		Assert.assertTrue(state.canMatchSubtree());
+		state.push(new TreeInfo("a"));
+		Assert.assertFalse(state.matches());
+		state.push(new TreeInfo("b"));
+		Assert.assertTrue(state.matches(0));
+		Assert.assertFalse(state.matches(1));
+		state.sync(1, new TreeInfo("d"));
+		Assert.assertFalse(state.canMatchSubtree());
+		state.sync(1, new TreeInfo("c"));
+		Assert.assertTrue(state.matches(1));
+		Assert.assertEquals(1, state.getMatchCount());
+	}
+
+	public void testPatternCache() throws ParseException {
+		LruJsonPatternCache cache = new LruJsonPatternCache(2);
+
+		JsonPatternMatcher foo = cache.get("foo");
+		Assert.assertSame(foo, cache.get("foo"));
+		cache.get("bar");
+		cache.get("foo");
+		cache.get("baz"); // evicts bar
+		Assert.assertSame(foo, cache.get("foo"));
+		cache.get("bar");
+
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(3, cache.getHitCount());
+		Assert.assertEquals(4, cache.getMissCount());
+		Assert.assertEquals(2, cache.getEvictionCount());
+
+		try {
+			cache.get("@a");
+			throw new AssertionError();
+		} catch (ParseException e) {
+			e.getMessage();
+		}
+	}
+
+	public void testPatternCacheConcurrent() throws Exception {
+		final LruJsonPatternCache cache = new LruJsonPatternCache(8);
+		final AtomicInteger wrong = new AtomicInteger(0);
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final int seed = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (int i = 0; i < 20000; i++) {
+							// mostly few hot patterns, sometimes one of many cold ones
+							int k = i % 10 == 0 ? (i * 7 + seed) % 100 : i % 4;
+							JsonPatternMatcher matcher = cache.get("p" + k);
+							if (!matcher.matches(Arrays.asList(TreeInfo.of("p" + k))))
+								wrong.incrementAndGet();
+						}
+					} catch (ParseException e) {
+						wrong.incrementAndGet();
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		Assert.assertEquals(0, wrong.get());
+		Assert.assertTrue(cache.size() <= 8);
+		Assert.assertEquals(80000, cache.getHitCount() + cache.getMissCount());
+		Assert.assertTrue(cache.getHitCount() > cache.getMissCount());
+		// hot patterns survive evictions of cold ones
+		long misses = cache.getMissCount();
+		for (int k = 0; k < 4; k++) {
+			cache.get("p" + k);
+		}
+		Assert.assertEquals(misses, cache.getMissCount());
+	}
+
+	public void testTreeInfoOf() throws ParseException {
+		Assert.assertSame(TreeInfo.of(5), TreeInfo.of(5));
+		Assert.assertEquals(5, TreeInfo.of(5).getIndex());
+		Assert.assertEquals(100000, TreeInfo.of(100000).getIndex());
+		Assert.assertEquals(TreeInfo.TreeInfoType.INDEX, TreeInfo.of(100000).getType());
+
+		TreeInfo property = TreeInfo.of(new String("key"));
+		Assert.assertSame(property, TreeInfo.of(new String("key")));
+		Assert.assertEquals("key", property.getProperty());
+		Assert.assertEquals(TreeInfo.TreeInfoType.PROPERTY, property.getType());
+
+		// many distinct properties must not stop others from being shared
+		for (int i = 0; i < 100000; i++) {
+			TreeInfo.of("unique" + i);
+		}
+		// hot property takes the slot over after a few lookups
+		for (int i = 0; i < 16; i++) {
+			TreeInfo.of(new String("hot"));
+		}
+		TreeInfo hot = TreeInfo.of(new String("hot"));
+		Assert.assertSame(hot, TreeInfo.of(new String("hot")));
+		// and keeps it while used among many other properties
+		for (int i = 0; i < 100000; i++) {
+			TreeInfo.of("other" + i);
+			if (i % 100 == 0)
+				Assert.assertSame(hot, TreeInfo.of(new String("hot")));
+		}
+		Assert.assertEquals("key", TreeInfo.of("key").getProperty());
+
+		StringBuilder longProperty = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			longProperty.append('x');
+		}
+		Assert.assertEquals(longProperty.toString(), TreeInfo.of(longProperty.toString()).getProperty());
+		Assert.assertNotSame(TreeInfo.of(longProperty.toString()), TreeInfo.of(longProperty.toString()));
+
+		JsonPatternMatcher matcher = new JsonPatternMatcher("key.@0");
+		testMatcher(matcher, true, TreeInfo.of("key"), TreeInfo.of(0));
+		testMatcher(matcher, true, new TreeInfo(new String("key")), new TreeInfo(0));
+		testMatcher(matcher, false, TreeInfo.of("kez"), TreeInfo.of(0));
+	}
+
+	public void testTreeInfoHash() throws ParseException {
+		String key = "com.example.service.field";
+		TreeInfo info = new TreeInfo(key);
+		Assert.assertEquals(key.hashCode(), info.getPropertyHash());
+		Assert.assertEquals(0, new TreeInfo(3).getPropertyHash());
+		Assert.assertEquals(info, new TreeInfo(new String(key)));
+		Assert.assertEquals(info.hashCode(), new TreeInfo(new String(key)).hashCode());
+		Assert.assertEquals(new TreeInfo(3), TreeInfo.of(3));
+		Assert.assertFalse(info.equals(new TreeInfo("com.example.service.fielc")));
+		Assert.assertFalse(new TreeInfo(3).equals(new TreeInfo(4)));
+
+		JsonPatternMatcher matcher = new JsonPatternMatcher(key.replace('.', '_'));
+		testMatcher(matcher, true, new TreeInfo(new String(key.replace('.', '_'))));
+		testMatcher(matcher, false, new TreeInfo("com_example_service_fielc"));
+		testMatcher(matcher, false, new TreeInfo(0));
+	}
+
+	private void testSubtree(JsonPatternMatcher matcher, boolean b, TreeInfo... treeInfos) {
+		if (b) {
+			Assert.assertTrue(matcher.canMatchSubtree(Arrays.asList(treeInfos)));
+		} else {
+			Assert.assertFalse(matcher.canMatchSubtree(Arrays.asList(treeInfos)));
+		}
+	}
+
 	private void testMatcher(JsonPatternMatcher matcher, boolean b, TreeInfo... treeInfos) {
 		if (b) {
 			Assert.assertTrue(matcher.matches(Arrays.asList(treeInfos)));
@@ -0,0 +1,241 @@
+package com.github.enerccio.gson.tests.visitors;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.enerccio.gson.JsonHelper;
+import com.github.enerccio.gson.JsonHelper.IJsonPredicate;
+import com.github.enerccio.gson.builders.JsonBuilder;
+import com.github.enerccio.gson.builders.ValueBuilder;
+import com.github.enerccio.gson.visitors.IJsonElementEntry;
+import com.github.enerccio.gson.visitors.IJsonElementExit;
+import com.github.enerccio.gson.tree.JsonPatternMatcher;
+import com.github.enerccio.gson.visitors.IJsonVisitorCollector;
+import com.github.enerccio.gson.visitors.IJsonVisitorListener;
+import com.github.enerccio.gson.visitors.JsonElementType;
+import com.github.enerccio.gson.visitors.JsonTreeVisitor;
+import com.github.enerccio.gson.visitors.ParallelJsonTreeVisitor;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class TestVisitorParallel extends TestCase {
+
+	public TestVisitorParallel(String testName) {
+		super(testName);
+	}
+
+	public static Test suite() {
+		return new TestSuite(TestVisitorParallel.class);
+	}
+
+	public void testDocumentOrder() {
+		JsonElement e = createTree(2000);
+
+		EventCollector sequential = new EventCollector();
+		((JsonTreeVisitor) new JsonTreeVisitor().setListener(sequential)).visit(e);
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			List<String> parallel = new ParallelJsonTreeVisitor(pool).setSplitThreshold(7).visit(e,
+					new EventCollector());
+			Assert.assertEquals(sequential.getResult(), parallel);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	public void testWideObject() {
+		JsonObject wide = new JsonObject();
+		for (int i = 0; i < 100; i++) {
+			wide.add("p" + i, createTree(3));
+		}
+		JsonArray root = new JsonArray();
+		root.add(wide);
+		root.add(wide);
+
+		EventCollector sequential = new EventCollector();
+		((JsonTreeVisitor) new JsonTreeVisitor().setListener(sequential)).visit(root);
+		List<String> parallel = new ParallelJsonTreeVisitor().setSplitThreshold(7).visit(root, new EventCollector());
+		Assert.assertEquals(sequential.getResult(), parallel);
+	}
+
+	public void testDeepNesting() throws ParseException {
+		int depth = 100000;
+		JsonElement root = new JsonPrimitive(1);
+		for (int i = 0; i < depth; i++) {
+			JsonArray a = new JsonArray();
+			JsonObject o = new JsonObject();
+			o.add("a", root);
+			a.add(o);
+			root = i % 2 == 0 ? a : o;
+		}
+
+		final AtomicInteger sequential = new AtomicInteger(0);
+		new JsonTreeVisitor().visit(root, new IJsonVisitorListener() {
+
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+
+			}
+
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				sequential.incrementAndGet();
+			}
+		});
+		Assert.assertEquals(sequential.get(), new ParallelJsonTreeVisitor().visit(root, new CountingCollector())
+				.intValue());
+
+		JsonPatternMatcher matcher = new JsonPatternMatcher("**");
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			Assert.assertEquals(JsonHelper.getAll(root, matcher).size(),
+					JsonHelper.getAll(root, matcher, new IJsonPredicate() {
+
+						@Override
+						public boolean test(JsonElement e) {
+							return true;
+						}
+					}, pool).size());
+		} finally {
+			pool.shutdown();
+		}
+
+		try {
+			new ParallelJsonTreeVisitor().setMaxDepth(1000).visit(root, new CountingCollector());
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testSkipAndStop() {
+		JsonElement e = createTree(2000);
+
+		List<String> events = new ParallelJsonTreeVisitor().setSplitThreshold(7).visit(e, new EventCollector() {
+
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+				super.onElementStart(entry);
+				if (entry.getType() == JsonElementType.OBJECT && entry.getTree().size() == 1)
+					entry.skip();
+			}
+
+			@Override
+			public IJsonVisitorCollector<List<String>> fork() {
+				return this;
+			}
+
+			@Override
+			public void join(IJsonVisitorCollector<List<String>> other) {
+
+			}
+		});
+		// root, then start of each skipped object, then root end
+		Assert.assertEquals(2002, events.size());
+
+		List<String> stopped = new ParallelJsonTreeVisitor().visit(e, new StoppingCollector());
+		// tasks already running may deliver few more events, but no task
+		// continues after the stop
+		Assert.assertTrue(stopped.size() < 100);
+	}
+
+	private JsonElement createTree(int size) {
+		ValueBuilder builder = new JsonBuilder().array();
+		for (int i = 0; i < size; i++) {
+			builder = builder.object().number("id", i).property("tags").array().string("a").string("b").end().end();
+		}
+		return builder.end().toJsonTree();
+	}
+
+	private static class CountingCollector implements IJsonVisitorCollector<Integer> {
+
+		private int ends = 0;
+
+		@Override
+		public void onElementStart(IJsonElementEntry entry) {
+
+		}
+
+		@Override
+		public void onElementEnd(IJsonElementExit exit) {
+			ends++;
+		}
+
+		@Override
+		public IJsonVisitorCollector<Integer> fork() {
+			return new CountingCollector();
+		}
+
+		@Override
+		public void join(IJsonVisitorCollector<Integer> other) {
+			ends += other.getResult();
+		}
+
+		@Override
+		public Integer getResult() {
+			return ends;
+		}
+
+	}
+
+	private static class StoppingCollector extends EventCollector {
+
+		@Override
+		public void onElementEnd(IJsonElementExit exit) {
+			super.onElementEnd(exit);
+			exit.stop();
+		}
+
+		@Override
+		public IJsonVisitorCollector<List<String>> fork() {
+			return new StoppingCollector();
+		}
+
+	}
+
+	private static class EventCollector implements IJsonVisitorCollector<List<String>> {
+
+		private final List<String> events = new ArrayList<String>();
+
+		@Override
+		public void onElementStart(IJsonElementEntry entry) {
+			synchronized (events) {
+				events.add("start:" + entry.getPath());
+			}
+		}
+
+		@Override
+		public void onElementEnd(IJsonElementExit exit) {
+			synchronized (events) {
+				events.add("end:" + exit.getPath());
+			}
+		}
+
+		@Override
+		public IJsonVisitorCollector<List<String>> fork() {
+			return new EventCollector();
+		}
+
+		@Override
+		public void join(IJsonVisitorCollector<List<String>> other) {
+			events.addAll(other.getResult());
+		}
+
+		@Override
+		public List<String> getResult() {
+			return events;
+		}
+
+	}
+}
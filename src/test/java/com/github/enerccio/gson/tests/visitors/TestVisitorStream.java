@@ -1,5 +1,14 @@
 package com.github.enerccio.gson.tests.visitors;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -396,4 +405,308 @@ public class TestVisitorStream extends TestCase {
 		
 		Assert.assertEquals("{}", gson.toJson(e));
 	}
+	
+	public void testVisitReader() throws IOException {
+		final AtomicInteger numbers = new AtomicInteger(0);
+		final AtomicInteger objects = new AtomicInteger(0);
+		IJsonVisitorListener counter = new IJsonVisitorListener() {
+			
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+				
+			}
+			
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				if (exit.getType() == JsonElementType.NUMBER)
+					numbers.incrementAndGet();
+				else if (exit.getType() == JsonElementType.OBJECT)
+					objects.incrementAndGet();
+			}
+		};
+		
+		JsonStreamVisitor v = new JsonStreamVisitor();
+		
+		// generated on the fly, never present in memory as a whole
+		v.visit(new GeneratedArrayReader(100000), counter);
+		Assert.assertEquals(100000, objects.get());
+		Assert.assertEquals(200000, numbers.get());
+		
+		numbers.set(0);
+		objects.set(0);
+		v.visit(new ByteArrayInputStream("[{\"a\":1,\"b\":\"\u00e1\"},2]".getBytes("UTF-8")),
+				Charset.forName("UTF-8"), counter);
+		Assert.assertEquals(1, objects.get());
+		Assert.assertEquals(2, numbers.get());
+		
+		File f = File.createTempFile("gson-utilities", ".json");
+		try {
+			FileOutputStream fos = new FileOutputStream(f);
+			try {
+				fos.write("{\"a\":[1,2,3]}".getBytes("UTF-8"));
+			} finally {
+				fos.close();
+			}
+			numbers.set(0);
+			objects.set(0);
+			v.visit(f.toPath(), counter);
+			Assert.assertEquals(1, objects.get());
+			Assert.assertEquals(3, numbers.get());
+		} finally {
+			f.delete();
+		}
+		
+		numbers.set(0);
+		objects.set(0);
+		ByteBuffer buffer = ByteBuffer.wrap("[{\"\u010d\":1},{\"b\":2}]".getBytes("UTF-8"));
+		v.visit(buffer, counter);
+		Assert.assertEquals(2, objects.get());
+		Assert.assertEquals(2, numbers.get());
+		Assert.assertFalse(buffer.hasRemaining());
+		
+		numbers.set(0);
+		objects.set(0);
+		v.visit(Channels.newChannel(new ByteArrayInputStream("{\"a\":[1,2,3]}".getBytes("UTF-8"))), counter);
+		Assert.assertEquals(1, objects.get());
+		Assert.assertEquals(3, numbers.get());
+		
+		try {
+			v.visit(new StringReader("{\"a\":[1,2"), counter);
+			throw new AssertionError();
+		} catch (IllegalArgumentException e) {
+			e.getMessage();
+		}
+	}
+	
+	public void testLightweight() throws IOException {
+		final Gson gson = new GsonBuilder().create();
+		final List<String> built = new ArrayList<String>();
+		final List<String> notBuilt = new ArrayList<String>();
+		
+		JsonStreamVisitor v = new JsonStreamVisitor().setLightweight(true);
+		Assert.assertTrue(v.isLightweight());
+		v.setListener(new IJsonVisitorListener() {
+			
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+				if (entry.getPath().equals("c"))
+					entry.retain();
+			}
+			
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				try {
+					built.add(exit.getPath() + "=" + gson.toJson(exit.getElement()));
+				} catch (IllegalStateException e) {
+					notBuilt.add(exit.getPath() + ":" + exit.getType());
+				}
+			}
+		});
+		
+		JsonElement e = v.visit(new StringReader("{\"a\":[true,{\"b\":\"x\"}],\"c\":{\"d\":\"y\"}}"));
+		Assert.assertNull(e);
+		Assert.assertEquals(Arrays.asList("a.@0=true", "a.@1.b=\"x\"", "a.@1.b={\"b\":\"x\"}", "c.d=\"y\"", "c.d={\"d\":\"y\"}",
+				"c={\"d\":\"y\"}", "c={\"c\":{\"d\":\"y\"}}"), built);
+		Assert.assertEquals(Arrays.asList("a.@1:OBJECT", "a:ARRAY", "a:PROPERTY", ":OBJECT"), notBuilt);
+		
+		// whole document retained is same as default mode
+		v.setListener(new IJsonVisitorListener() {
+			
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+				if (entry.getTree().isEmpty())
+					entry.retain();
+			}
+			
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				
+			}
+		});
+		e = v.visitReturn("{\"a\":[true,{\"b\":\"x\"}],\"c\":{\"d\":\"y\"}}");
+		Assert.assertEquals("{\"a\":[true,{\"b\":\"x\"}],\"c\":{\"d\":\"y\"}}", gson.toJson(e));
+	}
+	
+	public void testLightweightProperties() throws IOException {
+		final List<Long> ids = new ArrayList<Long>();
+		final List<String> values = new ArrayList<String>();
+		final AtomicInteger notBuilt = new AtomicInteger(0);
+		
+		new JsonStreamVisitor().setLightweight(true).visit(new StringReader("[{\"id\":1,\"o\":{\"x\":2}},{\"id\":3,\"o\":{}}]"),
+				new IJsonVisitorListener() {
+			
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+				if (entry.getType() == JsonElementType.OBJECT && entry.getPath().endsWith(".o"))
+					entry.retain();
+			}
+			
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				if (exit.getType() == JsonElementType.NUMBER && exit.getPath().endsWith(".id"))
+					ids.add(exit.getAsLong());
+				if (exit.getType() != JsonElementType.PROPERTY)
+					return;
+				try {
+					values.add(exit.getPath() + "=" + exit.getValue());
+				} catch (IllegalStateException e) {
+					// value of property that is not retained is not built, reading
+					// the number did not build it either
+					notBuilt.incrementAndGet();
+				}
+			}
+		});
+		
+		Assert.assertEquals(Arrays.asList(1L, 3L), ids);
+		// retained values of properties are available even if property itself was not retained
+		Assert.assertEquals(Arrays.asList("@0.o.x=2", "@0.o={\"x\":2}", "@1.o={}"), values);
+		Assert.assertEquals(2, notBuilt.get());
+	}
+	
+	public void testNumbers() {
+		final Gson gson = new GsonBuilder().create();
+		final List<Long> longs = new ArrayList<Long>();
+		final List<Double> doubles = new ArrayList<Double>();
+		final AtomicInteger failures = new AtomicInteger(0);
+		
+		JsonStreamVisitor v = new JsonStreamVisitor();
+		v.setListener(new IJsonVisitorListener() {
+			
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+				
+			}
+			
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				try {
+					longs.add(exit.getAsLong());
+					doubles.add(exit.getAsDouble());
+				} catch (IllegalStateException e) {
+					failures.incrementAndGet();
+				}
+			}
+		});
+		
+		String json = "[9007199254740993,1.5,-3,1e2,\"4\"]";
+		JsonElement e = v.visitReturn(json);
+		Assert.assertEquals(Arrays.asList(9007199254740993L, 1L, -3L, 100L), longs);
+		Assert.assertEquals(Arrays.asList(9007199254740992.0, 1.5, -3.0, 100.0), doubles);
+		Assert.assertEquals(2, failures.get()); // string and array
+		
+		// exact values are kept and match tree deserialization
+		Assert.assertEquals(json, gson.toJson(e));
+		Assert.assertEquals(gson.fromJson(json, JsonElement.class), e);
+		Assert.assertEquals(9007199254740993L, e.getAsJsonArray().get(0).getAsLong());
+		Assert.assertEquals("1e2", e.getAsJsonArray().get(3).getAsNumber().toString());
+		Assert.assertEquals(100, e.getAsJsonArray().get(3).getAsInt());
+		Assert.assertEquals(1, e.getAsJsonArray().get(1).getAsInt());
+		Assert.assertEquals(1.5f, e.getAsJsonArray().get(1).getAsFloat());
+	}
+	
+	/**
+	 * Produces [{"id":0,"v":0},{"id":1,"v":2},...] without ever holding it in
+	 * memory.
+	 */
+	public void testStop() {
+		final List<String> events = new ArrayList<String>();
+		IJsonVisitorListener listener = new IJsonVisitorListener() {
+
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+				events.add("start:" + entry.getPath());
+			}
+
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				events.add("end:" + exit.getPath());
+				if (exit.getPath().equals("@0.@1"))
+					exit.stop();
+			}
+		};
+
+		new JsonStreamVisitor().visit("[[1,2,3],4]", listener);
+
+		Assert.assertEquals(Arrays.asList("start:", "start:@0", "start:@0.@0", "end:@0.@0", "start:@0.@1", "end:@0.@1"),
+				events);
+	}
+
+	public void testStopReading() throws IOException {
+		GeneratedArrayReader reader = new GeneratedArrayReader(1000000);
+		new JsonStreamVisitor().setLightweight(true).visit(reader, new IJsonVisitorListener() {
+
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+			}
+
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				if (exit.getPath().equals("@10.id"))
+					exit.stop();
+			}
+		});
+		Assert.assertTrue(reader.written < 1000);
+	}
+
+	public void testPropertyElement() {
+		final List<String> elements = new ArrayList<String>();
+		IJsonVisitorListener listener = new IJsonVisitorListener() {
+
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+
+			}
+
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				if (exit.getType() == JsonElementType.PROPERTY) {
+					elements.add(exit.getElement().toString());
+					elements.add(exit.getValue().toString());
+				}
+			}
+		};
+
+		new JsonStreamVisitor().visit("{\"a\":[1]}", listener);
+
+		Assert.assertEquals(Arrays.asList("{\"a\":[1]}", "[1]"), elements);
+	}
+
+	static class GeneratedArrayReader extends Reader {
+		
+		private final int count;
+		private int written = 0;
+		private String chunk = "[";
+		private int chunkPos = 0;
+		long read = 0;
+		
+		public GeneratedArrayReader(int count) {
+			this.count = count;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			if (chunkPos == chunk.length()) {
+				if (written > count)
+					return -1;
+				if (written == count) {
+					chunk = "]";
+				} else {
+					chunk = (written == 0 ? "" : ",") + "{\"id\":" + written + ",\"v\":" + (written * 2) + "}";
+				}
+				chunkPos = 0;
+				++written;
+			}
+			int n = Math.min(len, chunk.length() - chunkPos);
+			chunk.getChars(chunkPos, chunkPos + n, cbuf, off);
+			chunkPos += n;
+			read += n;
+			return n;
+		}
+
+		@Override
+		public void close() throws IOException {
+			
+		}
+		
+	}
 }
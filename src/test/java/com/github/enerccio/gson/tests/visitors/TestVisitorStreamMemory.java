@@ -0,0 +1,58 @@
+package com.github.enerccio.gson.tests.visitors;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.enerccio.gson.tests.visitors.TestVisitorStream.GeneratedArrayReader;
+import com.github.enerccio.gson.visitors.IJsonElementEntry;
+import com.github.enerccio.gson.visitors.IJsonElementExit;
+import com.github.enerccio.gson.visitors.IJsonVisitorListener;
+import com.github.enerccio.gson.visitors.JsonElementType;
+import com.github.enerccio.gson.visitors.JsonStreamVisitor;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Run by its own surefire execution with small heap (see pom.xml), so
+ * documents larger than the heap are visited in reasonable time.
+ */
+public class TestVisitorStreamMemory extends TestCase {
+
+	public TestVisitorStreamMemory(String testName) {
+		super(testName);
+	}
+
+	public static Test suite() {
+		return new TestSuite(TestVisitorStreamMemory.class);
+	}
+
+	public void testBoundedMemory() throws IOException {
+		// several times more characters than the heap can hold, lightweight
+		// visit must not keep them
+		long maxMemory = Runtime.getRuntime().maxMemory();
+		int count = (int) Math.min(maxMemory / 8, 50000000L);
+		final AtomicInteger objects = new AtomicInteger(0);
+		GeneratedArrayReader reader = new GeneratedArrayReader(count);
+		new JsonStreamVisitor().setLightweight(true).visit(reader, new IJsonVisitorListener() {
+			
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+				
+			}
+			
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				if (exit.getType() == JsonElementType.OBJECT)
+					objects.incrementAndGet();
+			}
+		});
+		Assert.assertEquals(count, objects.get());
+		// unless heap is too large to be exceeded in reasonable time
+		if (count < 50000000)
+			Assert.assertTrue(reader.read * 2 > maxMemory * 4);
+	}
+
+}
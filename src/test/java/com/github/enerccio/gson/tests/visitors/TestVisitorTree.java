@@ -1,5 +1,7 @@
 package com.github.enerccio.gson.tests.visitors;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -13,11 +15,16 @@ import com.github.enerccio.gson.visitors.IJsonElementEntry;
 import com.github.enerccio.gson.visitors.IJsonElementExit;
 import com.github.enerccio.gson.visitors.IJsonVisitor;
 import com.github.enerccio.gson.visitors.IJsonVisitorListener;
+import com.github.enerccio.gson.visitors.IVisitorCallbackBase;
 import com.github.enerccio.gson.visitors.JsonElementType;
+import com.github.enerccio.gson.visitors.JsonStreamVisitor;
 import com.github.enerccio.gson.visitors.JsonTreeVisitor;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
 
 import junit.framework.Assert;
 import junit.framework.Test;
@@ -432,4 +439,219 @@ public class TestVisitorTree extends TestCase {
 		
 		Assert.assertEquals("{}", gson.toJson(e));
 	}
+
+	public void testStop() {
+		final List<String> events = new ArrayList<String>();
+		IJsonVisitorListener listener = new IJsonVisitorListener() {
+
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+				events.add("start:" + entry.getPath());
+			}
+
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				events.add("end:" + exit.getPath());
+				if (exit.getPath().equals("@0.@1"))
+					exit.stop();
+			}
+		};
+
+		JsonTreeVisitor v = new JsonTreeVisitor();
+		v.setListener(listener);
+		v.visit("[[1,2,3],4]");
+		events.clear();
+		v.visit("[[1,2,3],4]");
+
+		Assert.assertEquals(Arrays.asList("start:", "start:@0", "start:@0.@0", "end:@0.@0", "start:@0.@1", "end:@0.@1"),
+				events);
+	}
+
+	public void testDocumentOrder() {
+		Gson gson = new GsonBuilder().create();
+		final List<String> properties = new ArrayList<String>();
+
+		JsonTreeVisitor v = new JsonTreeVisitor();
+		v.setListener(new IJsonVisitorListener() {
+
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+
+			}
+
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				if (exit.getType() == JsonElementType.PROPERTY) {
+					properties.add(exit.getPropertyName());
+					if (exit.getPropertyName().equals("m"))
+						exit.detach();
+				}
+			}
+		});
+
+		JsonElement e = gson.fromJson("{\"z\":1,\"a\":2,\"m\":3,\"b\":4}", JsonElement.class);
+		v.visit(e);
+
+		Assert.assertEquals(Arrays.asList("z", "a", "m", "b"), properties);
+		Assert.assertEquals("{\"z\":1,\"a\":2,\"b\":4}", gson.toJson(e));
+	}
+
+	public void testPropertyElement() {
+		final List<String> elements = new ArrayList<String>();
+		IJsonVisitorListener listener = new IJsonVisitorListener() {
+
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+
+			}
+
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				if (exit.getType() == JsonElementType.PROPERTY) {
+					elements.add(exit.getElement().toString());
+					elements.add(exit.getValue().toString());
+				}
+			}
+		};
+
+		new JsonTreeVisitor().setListener(listener).visit("{\"a\":[1]}");
+
+		Assert.assertEquals(Arrays.asList("{\"a\":[1]}", "[1]"), elements);
+	}
+
+	public void testSharedVisitor() throws InterruptedException {
+		final JsonTreeVisitor v = new JsonTreeVisitor();
+		final AtomicInteger failures = new AtomicInteger(0);
+
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final int size = 100 * (t + 1);
+			threads[t] = new Thread() {
+
+				@Override
+				public void run() {
+					StringBuilder json = new StringBuilder("[");
+					for (int i = 0; i < size; i++) {
+						json.append(i == 0 ? "" : ",").append("{\"a\":").append(i).append("}");
+					}
+					json.append("]");
+
+					for (int round = 0; round < 20; round++) {
+						final AtomicInteger numbers = new AtomicInteger(0);
+						v.visit(json.toString(), new IJsonVisitorListener() {
+
+							@Override
+							public void onElementStart(IJsonElementEntry entry) {
+
+							}
+
+							@Override
+							public void onElementEnd(IJsonElementExit exit) {
+								if (exit.getType() == JsonElementType.NUMBER
+										&& exit.getTree().size() == 2 && exit.getAsLong() == numbers.get())
+									numbers.incrementAndGet();
+							}
+						});
+						if (numbers.get() != size)
+							failures.incrementAndGet();
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Assert.assertEquals(0, failures.get());
+	}
+
+	public void testDeepNesting() {
+		int depth = 100000;
+		JsonElement root = new JsonPrimitive(1);
+		for (int i = 0; i < depth; i++) {
+			JsonArray a = new JsonArray();
+			JsonObject o = new JsonObject();
+			o.add("a", root);
+			a.add(o);
+			root = i % 2 == 0 ? a : o;
+		}
+
+		final AtomicInteger starts = new AtomicInteger(0);
+		final AtomicInteger ends = new AtomicInteger(0);
+		final AtomicInteger maxDepth = new AtomicInteger(0);
+		new JsonTreeVisitor().visit(root, new IJsonVisitorListener() {
+
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+				starts.incrementAndGet();
+			}
+
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				ends.incrementAndGet();
+				if (exit.getType() == JsonElementType.NUMBER)
+					maxDepth.set(exit.getTree().size());
+			}
+		});
+		Assert.assertEquals(starts.get(), ends.get());
+		Assert.assertEquals(depth * 3 / 2, maxDepth.get());
+
+		try {
+			new JsonTreeVisitor().setMaxDepth(1000).visit(root, new IJsonVisitorListener() {
+
+				@Override
+				public void onElementStart(IJsonElementEntry entry) {
+
+				}
+
+				@Override
+				public void onElementEnd(IJsonElementExit exit) {
+
+				}
+			});
+			Assert.fail("max depth not enforced");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testPathRendering() {
+		String value = "{\"a\":[{\"b\":1,\"c\":[2,3]},{\"b\":4}],\"d\":{\"e\":{\"f\":5}},\"g\":6}";
+		final List<String> paths = new ArrayList<String>();
+
+		IJsonVisitorListener listener = new IJsonVisitorListener() {
+
+			private void check(String path, Collection<TreeInfo> tree, IVisitorCallbackBase callback) {
+				StringWriter out = new StringWriter();
+				try {
+					callback.appendPath(out);
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+				Assert.assertEquals(TreeInfo.toPath(tree), path);
+				Assert.assertEquals(path, out.toString());
+				paths.add(path);
+			}
+
+			@Override
+			public void onElementStart(IJsonElementEntry entry) {
+				check(entry.getPath(), entry.getTree(), entry);
+			}
+
+			@Override
+			public void onElementEnd(IJsonElementExit exit) {
+				check(exit.getPath(), exit.getTree(), exit);
+			}
+		};
+
+		new JsonTreeVisitor().visit(value, listener);
+		List<String> tree = new ArrayList<String>(paths);
+		paths.clear();
+		new JsonStreamVisitor().visit(value, listener);
+		Assert.assertEquals(tree, paths);
+		Assert.assertTrue(tree.contains("a.@1.b"));
+		Assert.assertTrue(tree.contains("a.@0.c.@1"));
+		Assert.assertTrue(tree.contains("d.e.f"));
+		Assert.assertTrue(tree.contains("g"));
+	}
 }